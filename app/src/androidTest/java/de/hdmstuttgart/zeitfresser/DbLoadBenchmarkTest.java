@@ -0,0 +1,185 @@
+package de.hdmstuttgart.zeitfresser;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Bundle;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import de.hdmstuttgart.zeitfresser.db.DbCalls;
+import de.hdmstuttgart.zeitfresser.db.DbManager;
+import de.hdmstuttgart.zeitfresser.db.DbStatements;
+import de.hdmstuttgart.zeitfresser.model.Record;
+import de.hdmstuttgart.zeitfresser.model.Task;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the former one-query-per-task loading of {@link DbCalls#getTasks(Context)} with the
+ * joined single-pass loader for 10k, 100k and 1M records spread over a few hundred tasks.
+ * <br/>
+ * Generating a million records takes a while, so the benchmark only runs on demand:
+ * <pre>
+ * ./gradlew connectedAndroidTest \
+ *     -Pandroid.testInstrumentationRunnerArguments.benchmark=true
+ * </pre>
+ * Results are written to logcat (tag "DbLoadBenchmark").
+ */
+@RunWith(AndroidJUnit4.class)
+public class DbLoadBenchmarkTest {
+
+  private static final String TAG = "DbLoadBenchmark";
+  private static final String DATABASE_NAME = "benchmark.db";
+  private static final int TASK_COUNT = 300;
+  private static final long RECORD_LENGTH = 30 * 60 * 1000L;
+
+  private Context context;
+  private DbManager dbManager;
+
+  /**
+   * Skip unless benchmarks have been requested and start with an empty database.
+   */
+  @Before
+  public void setUp() {
+    Bundle arguments = InstrumentationRegistry.getArguments();
+    Assume.assumeTrue(arguments != null && Boolean.parseBoolean(arguments.getString("benchmark")));
+
+    context = InstrumentationRegistry.getTargetContext();
+    context.deleteDatabase(DATABASE_NAME);
+    dbManager = DbManager.acquire(context, DATABASE_NAME);
+  }
+
+  @After
+  public void tearDown() {
+    if (dbManager != null) {
+      DbManager.release(dbManager);
+      context.deleteDatabase(DATABASE_NAME);
+    }
+  }
+
+  @Test
+  public void benchmark10kRecords() {
+    runBenchmark(10000);
+  }
+
+  @Test
+  public void benchmark100kRecords() {
+    runBenchmark(100000);
+  }
+
+  @Test
+  public void benchmark1mRecords() {
+    runBenchmark(1000000);
+  }
+
+  private void runBenchmark(int recordCount) {
+    generateDataset(recordCount);
+    DbCalls dbCalls = new DbCalls(DATABASE_NAME);
+
+    long legacyStart = System.nanoTime();
+    int legacyRecords = countRecords(loadOneQueryPerTask());
+    long legacyMillis = (System.nanoTime() - legacyStart) / 1000000L;
+
+    long joinedStart = System.nanoTime();
+    int joinedRecords = countRecords(dbCalls.getTasks(context));
+    long joinedMillis = (System.nanoTime() - joinedStart) / 1000000L;
+    dbCalls.close();
+
+    Log.i(TAG, recordCount + " records: one query per task " + legacyMillis + " ms, "
+        + "single joined query " + joinedMillis + " ms");
+
+    org.junit.Assert.assertEquals(legacyRecords, joinedRecords);
+    org.junit.Assert.assertEquals(recordCount, joinedRecords);
+  }
+
+  private int countRecords(List<Task> tasks) {
+    int count = 0;
+    for (Task task : tasks) {
+      count += task.getRecordCount();
+    }
+    return count;
+  }
+
+  /**
+   * Insert {@link #TASK_COUNT} tasks and {@code recordCount} records, distributed round robin.
+   */
+  private void generateDataset(int recordCount) {
+    SQLiteDatabase db = dbManager.getWritableDatabase();
+
+    db.beginTransaction();
+    try {
+      db.delete(DbStatements.TABLE_NAME_RECORD, null, null);
+      db.delete(DbStatements.TABLE_NAME_TASK, null, null);
+
+      SQLiteStatement insertTask = db.compileStatement("INSERT INTO "
+          + DbStatements.TABLE_NAME_TASK + " (" + DbStatements.COLUMN_NAME_TITLE + ") VALUES (?)");
+      long[] taskIds = new long[TASK_COUNT];
+      for (int i = 0; i < TASK_COUNT; i++) {
+        insertTask.bindString(1, "Task #" + i);
+        taskIds[i] = insertTask.executeInsert();
+      }
+      insertTask.close();
+
+      SQLiteStatement insertRecord = db.compileStatement("INSERT INTO "
+          + DbStatements.TABLE_NAME_RECORD + " (" + DbStatements.COLUMN_NAME_TASKID + ", "
+          + DbStatements.COLUMN_NAME_START + ", " + DbStatements.COLUMN_NAME_END
+          + ") VALUES (?, ?, ?)");
+      long start = System.currentTimeMillis() - recordCount * RECORD_LENGTH;
+      for (int i = 0; i < recordCount; i++) {
+        insertRecord.bindLong(1, taskIds[i % TASK_COUNT]);
+        insertRecord.bindLong(2, start);
+        insertRecord.bindLong(3, start + RECORD_LENGTH);
+        insertRecord.executeInsert();
+        start += RECORD_LENGTH;
+      }
+      insertRecord.close();
+
+      db.setTransactionSuccessful();
+    } finally {
+      db.endTransaction();
+    }
+  }
+
+  /**
+   * The loading strategy used before: one query for the task table followed by one query per
+   * task.
+   */
+  private List<Task> loadOneQueryPerTask() {
+    List<Task> result = new ArrayList<>();
+    SQLiteDatabase db = dbManager.getReadableDatabase();
+    Cursor taskCursor = db.query(DbStatements.TABLE_NAME_TASK,
+        new String[]{DbStatements.COLUMN_NAME_TITLE, DbStatements._ID},
+        null, null, null, null, DbStatements.COLUMN_NAME_TITLE + " " + DbStatements.ASC);
+
+    taskCursor.moveToFirst();
+    while (!taskCursor.isAfterLast()) {
+      Task task = Task.fromCursor(taskCursor);
+
+      Cursor recordCursor = db.query(DbStatements.TABLE_NAME_RECORD,
+          new String[]{DbStatements._ID, DbStatements.COLUMN_NAME_START,
+              DbStatements.COLUMN_NAME_END},
+          DbStatements.COLUMN_NAME_TASKID + " = " + task.getId(), null, null, null, null);
+      recordCursor.moveToFirst();
+      while (!recordCursor.isAfterLast()) {
+        task.addRecord(Record.fromCursor(recordCursor));
+        recordCursor.moveToNext();
+      }
+      recordCursor.close();
+
+      result.add(task);
+      taskCursor.moveToNext();
+    }
+    taskCursor.close();
+    return result;
+  }
+}
@@ -1,5 +1,6 @@
 package de.hdmstuttgart.zeitfresser;
 
+import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.support.test.InstrumentationRegistry;
@@ -20,6 +21,7 @@ import org.junit.runner.RunWith;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 
@@ -49,6 +51,7 @@ public class DbTaskManagerTest {
    */
   @After
   public void after() {
+    taskManager.close();
     dbManager.deleteDatabase(DATABASE_NAME);
   }
 
@@ -124,6 +127,7 @@ public class DbTaskManagerTest {
       exception.printStackTrace();
     }
     taskManager.stopTask(task);
+    taskManager.flush();
 
     // back door manipulation
     boolean recordsInDbHigherZero = dbManager.getReadableDatabase()
@@ -138,7 +142,100 @@ public class DbTaskManagerTest {
             .dbCalls
             .getTasks(InstrumentationRegistry.getTargetContext())
             .get(0);
-    org.junit.Assert.assertTrue(taskFromDb.getOverallDuration() > 0.0);
+    org.junit.Assert.assertTrue(taskFromDb.getOverallDurationMillis() > 0);
+  }
+
+  /**
+   * Managers working on the same database share one helper, which stays open until the last of
+   * them has been closed.
+   */
+  @Test
+  public void testManagersShareDbManager() {
+    Context context = InstrumentationRegistry.getTargetContext();
+    DbManager first = DbManager.acquire(context, DATABASE_NAME);
+    DbManager second = DbManager.acquire(context, DATABASE_NAME);
+    org.junit.Assert.assertSame(first, second);
+
+    DbManager.release(first);
+    org.junit.Assert.assertTrue(second.getReadableDatabase().isOpen());
+    DbManager.release(second);
+
+    DbManager third = DbManager.acquire(context, DATABASE_NAME);
+    org.junit.Assert.assertNotSame(first, third);
+    DbManager.release(third);
+  }
+
+  /**
+   * The date range filter is evaluated by the database. A task with a single record must only
+   * show up for ranges which contain the record's start.
+   */
+  @Test
+  public void testGetFilteredTasksFromDb() {
+    Date beforeStart = new Date(System.currentTimeMillis() - 1000);
+    Task task = taskManager.getTaskList().get(0);
+    taskManager.startTask(task);
+    try {
+      Thread.sleep(100);
+    } catch (InterruptedException exception) {
+      exception.printStackTrace();
+    }
+    taskManager.stopTask(task);
+
+    List<Task> all = taskManager.getFilteredTasks(null, null);
+    List<Task> inRange = taskManager.getFilteredTasks(beforeStart, null);
+    List<Task> outOfRange = taskManager.getFilteredTasks(null, beforeStart);
+
+    org.junit.Assert.assertEquals(1, all.size());
+    org.junit.Assert.assertEquals(task.getId(), all.get(0).getId());
+    org.junit.Assert.assertEquals(1, inRange.size());
+    org.junit.Assert.assertTrue(outOfRange.isEmpty());
+  }
+
+  /**
+   * A switch writes the stopped record and marks the started task in one transaction. Loading
+   * the tasks again restores the running task, stopping it removes the mark.
+   */
+  @Test
+  public void testSwitchTaskIsRestored() {
+    List<Task> tasks = taskManager.getTaskList();
+    Task from = tasks.get(0);
+    Task to = tasks.get(1);
+    taskManager.startTask(from);
+    taskManager.switchTask(from, to);
+
+    List<Task> reloaded = taskManager.getTaskList();
+    org.junit.Assert.assertFalse(reloaded.get(0).isActive());
+    org.junit.Assert.assertTrue(reloaded.get(1).isActive());
+    org.junit.Assert.assertEquals(from.getOverallDurationMillis(),
+            reloaded.get(0).getOverallDurationMillis());
+    org.junit.Assert.assertEquals(to.getActiveRecord().getStartMillis(),
+            reloaded.get(1).getActiveRecord().getStartMillis());
+
+    taskManager.stopTask(reloaded.get(1));
+    org.junit.Assert.assertFalse(taskManager.getTaskList().get(1).isActive());
+  }
+
+  /**
+   * A manager doesn't answer from its cache once another manager on the same database, e.g. the
+   * one of another activity, has written records.
+   */
+  @Test
+  public void testCacheSeesWritesOfOtherManagers() throws InterruptedException {
+    DbTaskManager other = DbTaskManager.createInstance(InstrumentationRegistry.getTargetContext(),
+            DATABASE_NAME);
+    try {
+      org.junit.Assert.assertTrue(taskManager.getTaskSummaries(null, null).isEmpty());
+
+      Task task = other.getTaskList().get(0);
+      other.startTask(task);
+      Thread.sleep(20);
+      other.stopTask(task);
+      other.flush();
+
+      org.junit.Assert.assertEquals(1, taskManager.getTaskSummaries(null, null).size());
+    } finally {
+      other.close();
+    }
   }
 
 }
@@ -16,7 +16,7 @@ import android.widget.DatePicker;
 import com.github.mikephil.charting.charts.PieChart;
 import com.github.mikephil.charting.data.Entry;
 
-import de.hdmstuttgart.zeitfresser.model.Task;
+import de.hdmstuttgart.zeitfresser.model.TaskSummary;
 import de.hdmstuttgart.zeitfresser.model.manager.TaskManager;
 
 import org.hamcrest.Matchers;
@@ -58,10 +58,12 @@ public class EvalActivityTest {
     PieChart pieChart = evalActivity.getActivity().getPieChart();
 
     List<String> chartXVals = pieChart.getData().getXVals();
-    List<String> taskManagerLabels = taskManager.asNamesList(taskManager.getTaskList());
+    List<TaskSummary> topTasks = taskManager.topTasks(null, null, EvalActivity.MAX_PIE_SLICES,
+        evalActivity.getActivity().getString(R.string.eval_other_tasks));
+    List<String> taskManagerLabels = taskManager.asSummaryNamesList(topTasks);
 
     List<Entry> chartEntries = pieChart.getData().getDataSet().getYVals();
-    List<Entry> taskManagerEntries = taskManager.asEntryList(taskManager.getTaskList());
+    List<Entry> taskManagerEntries = taskManager.asSummaryEntryList(topTasks);
     List<Float> chartYVals = new ArrayList<>();
     List<Float> taskManagerDurations = new ArrayList<>();
 
@@ -70,13 +72,12 @@ public class EvalActivityTest {
     }
 
     for (Entry entry : taskManagerEntries) {
-      if (entry.getVal() > 0) {
-        taskManagerDurations.add(entry.getVal());
-      }
+      taskManagerDurations.add(entry.getVal());
     }
 
-    // test pie shows all labels with values not null
-    org.junit.Assert.assertTrue(taskManagerLabels.containsAll(chartXVals));
+    // test pie shows the largest tasks and at most one more slice for the others
+    org.junit.Assert.assertEquals(taskManagerLabels, chartXVals);
+    org.junit.Assert.assertTrue(chartXVals.size() <= EvalActivity.MAX_PIE_SLICES + 1);
 
     // test if pie shows the correct values
     org.junit.Assert.assertArrayEquals(taskManagerDurations.toArray(), chartYVals.toArray());
@@ -160,13 +161,15 @@ public class EvalActivityTest {
     } catch (ParseException ex) {
       ex.printStackTrace();
     }
-    List<Task> filteredTask = taskManager.getFilteredTasks(startDate, endDate);
+    List<TaskSummary> summaries = taskManager.topTasks(startDate, endDate,
+        EvalActivity.MAX_PIE_SLICES,
+        evalActivity.getActivity().getString(R.string.eval_other_tasks));
 
     List<String> labels = new ArrayList<>();
     List<Float> durations = new ArrayList<>();
-    for (Task task : filteredTask) {
-      durations.add(task.getOverallDuration());
-      labels.add(task.getName());
+    for (TaskSummary summary : summaries) {
+      durations.add((float) summary.getTotalMillis());
+      labels.add(summary.getName());
     }
 
     org.junit.Assert.assertArrayEquals(labels.toArray(), chartXVals.toArray());
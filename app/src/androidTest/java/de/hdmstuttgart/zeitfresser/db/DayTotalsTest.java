@@ -0,0 +1,118 @@
+package de.hdmstuttgart.zeitfresser.db;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import de.hdmstuttgart.zeitfresser.model.EpochDays;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.TimeZone;
+
+/**
+ * Checks the {@link DbStatements#TABLE_NAME_DAY_TOTALS} rollup against a real database.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DayTotalsTest {
+
+  private static final String DATABASE_NAME = "day-totals-test.db";
+  private static final long HOUR = 60 * 60 * 1000L;
+  private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+  private Context context;
+  private DbManager dbManager;
+  private SQLiteDatabase db;
+
+  /**
+   * Start with an empty database.
+   */
+  @Before
+  public void setUp() {
+    context = InstrumentationRegistry.getTargetContext();
+    context.deleteDatabase(DATABASE_NAME);
+    dbManager = new DbManager(context, DATABASE_NAME);
+    db = dbManager.getWritableDatabase();
+  }
+
+  @After
+  public void tearDown() {
+    dbManager.close();
+    context.deleteDatabase(DATABASE_NAME);
+  }
+
+  /**
+   * A record from 22:00 until 02:00 adds two hours to each day but is only counted once.
+   */
+  @Test
+  public void testRecordCrossingMidnightIsSplit() {
+    long midnight = EpochDays.startOf(100, UTC);
+    DayTotals dayTotals = new DayTotals(db, UTC);
+    dayTotals.add(1, midnight - 2 * HOUR, midnight + 2 * HOUR);
+    dayTotals.add(1, midnight + 3 * HOUR, midnight + 4 * HOUR);
+    dayTotals.close();
+
+    assertDayTotal(1, 99, 2 * HOUR, 1);
+    assertDayTotal(1, 100, 3 * HOUR, 1);
+  }
+
+  /**
+   * Rebuilding from the record table yields the same rollup as maintaining it incrementally.
+   */
+  @Test
+  public void testRebuildMatchesIncrementalTotals() {
+    long midnight = EpochDays.startOf(100, UTC);
+    insertRecord(1, midnight - 2 * HOUR, midnight + 2 * HOUR);
+    insertRecord(1, midnight + 3 * HOUR, midnight + 4 * HOUR);
+    insertRecord(2, midnight + 5 * HOUR, midnight + 8 * HOUR);
+
+    DayTotals.rebuild(db, UTC);
+
+    assertDayTotal(1, 99, 2 * HOUR, 1);
+    assertDayTotal(1, 100, 3 * HOUR, 1);
+    assertDayTotal(2, 100, 3 * HOUR, 1);
+  }
+
+  /**
+   * The rollup is rebuilt once it is used with another time zone than the one it was built for,
+   * and moves the records to the days of that zone.
+   */
+  @Test
+  public void testRebuildForOtherTimeZone() {
+    TimeZone tokyo = TimeZone.getTimeZone("Asia/Tokyo");
+    long midnight = EpochDays.startOf(100, UTC);
+    insertRecord(1, midnight + 20 * HOUR, midnight + 21 * HOUR);
+
+    Assert.assertTrue(DayTotals.ensureTimeZone(db, UTC));
+    Assert.assertFalse(DayTotals.ensureTimeZone(db, UTC));
+    assertDayTotal(1, 100, HOUR, 1);
+
+    Assert.assertTrue(DayTotals.ensureTimeZone(db, tokyo));
+    Assert.assertFalse(DayTotals.ensureTimeZone(db, tokyo));
+    assertDayTotal(1, 101, HOUR, 1);
+  }
+
+  private void insertRecord(long taskId, long start, long end) {
+    db.execSQL("INSERT INTO " + DbStatements.TABLE_NAME_RECORD + " ("
+        + DbStatements.COLUMN_NAME_TASKID + ", " + DbStatements.COLUMN_NAME_START + ", "
+        + DbStatements.COLUMN_NAME_END + ") VALUES (?, ?, ?)", new Object[]{taskId, start, end});
+  }
+
+  private void assertDayTotal(long taskId, long epochDay, long totalMillis, int recordCount) {
+    Cursor cursor = db.query(DbStatements.TABLE_NAME_DAY_TOTALS,
+        new String[]{DbStatements.COLUMN_NAME_TOTAL_MILLIS, DbStatements.COLUMN_NAME_RECORD_COUNT},
+        DbStatements.COLUMN_NAME_TASKID + " = ? AND " + DbStatements.COLUMN_NAME_EPOCH_DAY + " = ?",
+        new String[]{String.valueOf(taskId), String.valueOf(epochDay)}, null, null, null);
+
+    Assert.assertTrue(cursor.moveToFirst());
+    Assert.assertEquals(totalMillis, cursor.getLong(0));
+    Assert.assertEquals(recordCount, cursor.getInt(1));
+    cursor.close();
+  }
+}
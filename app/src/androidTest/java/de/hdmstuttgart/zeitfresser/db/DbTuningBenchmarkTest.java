@@ -0,0 +1,174 @@
+package de.hdmstuttgart.zeitfresser.db;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Bundle;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import de.hdmstuttgart.zeitfresser.model.Record;
+import de.hdmstuttgart.zeitfresser.model.Task;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
+import java.util.Date;
+
+/**
+ * Compares the {@link DbTuningProfile} presets on a generated dataset covering three years of
+ * tracking (20 tasks, 24 records a day). For each profile the benchmark measures
+ * <ul>
+ * <li>the tracking workload: single-record transactions as written by the record queue, and</li>
+ * <li>the evaluation workload: summaries and filtered task lists for every month of the last
+ * year.</li>
+ * </ul>
+ * Runs on demand only:
+ * <pre>
+ * ./gradlew connectedAndroidTest \
+ *     -Pandroid.testInstrumentationRunnerArguments.benchmark=true
+ * </pre>
+ * Results are written to logcat (tag "DbTuningBenchmark").
+ */
+@RunWith(AndroidJUnit4.class)
+public class DbTuningBenchmarkTest {
+
+  private static final String TAG = "DbTuningBenchmark";
+  private static final String DATABASE_NAME = "tuning-benchmark.db";
+  private static final int TASK_COUNT = 20;
+  private static final int YEARS = 3;
+  private static final int RECORDS_PER_DAY = 24;
+  private static final int SINGLE_WRITES = 500;
+  private static final long DAY = 24 * 60 * 60 * 1000L;
+  private static final long RECORD_LENGTH = 40 * 60 * 1000L;
+
+  private Context context;
+
+  /**
+   * Skip unless benchmarks have been requested.
+   */
+  @Before
+  public void setUp() {
+    Bundle arguments = InstrumentationRegistry.getArguments();
+    Assume.assumeTrue(arguments != null && Boolean.parseBoolean(arguments.getString("benchmark")));
+
+    context = InstrumentationRegistry.getTargetContext();
+  }
+
+  @Test
+  public void benchmarkDefaults() {
+    runBenchmark("defaults", DbTuningProfile.defaults());
+  }
+
+  @Test
+  public void benchmarkReadOptimized() {
+    runBenchmark("read-optimized", DbTuningProfile.readOptimized());
+  }
+
+  @Test
+  public void benchmarkDurable() {
+    runBenchmark("durable", DbTuningProfile.durable());
+  }
+
+  private void runBenchmark(String name, DbTuningProfile profile) {
+    context.deleteDatabase(DATABASE_NAME);
+    final DbManager dbManager = new DbManager(context, DATABASE_NAME);
+    dbManager.setTuningProfile(profile);
+    DbCalls dbCalls = new DbCalls(DATABASE_NAME) {
+      @Override
+      DbManager createDbManager(Context context) {
+        return dbManager;
+      }
+    };
+
+    try {
+      long[] taskIds = generateDataset(dbManager.getWritableDatabase());
+      long now = System.currentTimeMillis();
+
+      long writeStart = System.nanoTime();
+      for (int i = 0; i < SINGLE_WRITES; i++) {
+        Task task = newTask("Task #" + (i % TASK_COUNT), taskIds[i % TASK_COUNT]);
+        Record record = Record.create();
+        record.start();
+        record.stop();
+        dbCalls.persistRecords(context, Collections.singletonList(record),
+            Collections.singletonList(task));
+      }
+      long writeMillis = (System.nanoTime() - writeStart) / 1000000L;
+
+      long readStart = System.nanoTime();
+      int rows = 0;
+      for (int month = 12; month > 0; month--) {
+        Date from = new Date(now - month * 30 * DAY);
+        Date until = new Date(now - (month - 1) * 30 * DAY);
+        rows += dbCalls.getTaskSummaries(context, from, until).size();
+        rows += dbCalls.getFilteredTasks(context, from, until).size();
+      }
+      long readMillis = (System.nanoTime() - readStart) / 1000000L;
+
+      Log.i(TAG, name + " (" + profile + "): " + SINGLE_WRITES + " single writes "
+          + writeMillis + " ms, 12 monthly evaluations " + readMillis + " ms (" + rows + " rows)");
+    } finally {
+      dbManager.close();
+      context.deleteDatabase(DATABASE_NAME);
+    }
+  }
+
+  /**
+   * Task ids are assigned by the database only, the benchmark needs tasks for existing rows.
+   */
+  private static Task newTask(String name, long id) {
+    try {
+      Constructor<Task> constructor = Task.class.getDeclaredConstructor(String.class, long.class);
+      constructor.setAccessible(true);
+      return constructor.newInstance(name, id);
+    } catch (NoSuchMethodException | IllegalAccessException | InstantiationException
+        | InvocationTargetException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  private long[] generateDataset(SQLiteDatabase db) {
+    long[] taskIds = new long[TASK_COUNT];
+
+    db.beginTransaction();
+    try {
+      db.delete(DbStatements.TABLE_NAME_RECORD, null, null);
+      db.delete(DbStatements.TABLE_NAME_TASK, null, null);
+
+      SQLiteStatement insertTask = db.compileStatement("INSERT INTO "
+          + DbStatements.TABLE_NAME_TASK + " (" + DbStatements.COLUMN_NAME_TITLE + ") VALUES (?)");
+      for (int i = 0; i < TASK_COUNT; i++) {
+        insertTask.bindString(1, "Task #" + i);
+        taskIds[i] = insertTask.executeInsert();
+      }
+      insertTask.close();
+
+      SQLiteStatement insertRecord = db.compileStatement(DbStatements.SQL_INSERT_RECORD);
+      long dayStart = System.currentTimeMillis() - YEARS * 365 * DAY;
+      int recordCount = YEARS * 365 * RECORDS_PER_DAY;
+      for (int i = 0; i < recordCount; i++) {
+        long start = dayStart + (i / RECORDS_PER_DAY) * DAY
+            + (i % RECORDS_PER_DAY) * (DAY / RECORDS_PER_DAY);
+        insertRecord.bindLong(1, taskIds[i % TASK_COUNT]);
+        insertRecord.bindLong(2, start);
+        insertRecord.bindLong(3, start + RECORD_LENGTH);
+        insertRecord.executeInsert();
+      }
+      insertRecord.close();
+
+      db.setTransactionSuccessful();
+    } finally {
+      db.endTransaction();
+    }
+    DbManager.rebuildAggregates(db);
+
+    return taskIds;
+  }
+}
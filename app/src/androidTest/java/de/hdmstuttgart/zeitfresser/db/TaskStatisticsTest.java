@@ -0,0 +1,126 @@
+package de.hdmstuttgart.zeitfresser.db;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import de.hdmstuttgart.zeitfresser.model.Record;
+import de.hdmstuttgart.zeitfresser.model.Task;
+import de.hdmstuttgart.zeitfresser.model.TaskSummary;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Checks that the statistics cached in the task table follow record inserts and match a full
+ * rebuild.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TaskStatisticsTest {
+
+  private static final String DATABASE_NAME = "task-statistics-test.db";
+
+  private Context context;
+  private DbManager dbManager;
+  private DbCalls dbCalls;
+
+  /**
+   * Start with a fresh database containing the initial tasks only.
+   */
+  @Before
+  public void setUp() {
+    context = InstrumentationRegistry.getTargetContext();
+    context.deleteDatabase(DATABASE_NAME);
+    dbManager = new DbManager(context, DATABASE_NAME);
+    dbCalls = new DbCalls(DATABASE_NAME) {
+      @Override
+      DbManager createDbManager(Context context) {
+        return dbManager;
+      }
+    };
+  }
+
+  @After
+  public void tearDown() {
+    dbManager.close();
+    context.deleteDatabase(DATABASE_NAME);
+  }
+
+  /**
+   * Persisting records through {@link DbCalls} keeps total, count and start range current, and
+   * a rebuild from the record table arrives at the same values.
+   */
+  @Test
+  public void testStatisticsFollowInserts() throws InterruptedException {
+    List<Task> tasks = dbCalls.getTasks(context);
+    Task task = tasks.get(0);
+    task.start();
+    Record record = task.getActiveRecord();
+    Thread.sleep(20);
+    task.stop();
+    dbCalls.persistRecord(context, record, task);
+
+    long[] expected = readStatistics(task.getId());
+    Assert.assertTrue(expected[0] > 0);
+    Assert.assertEquals(1, expected[1]);
+    Assert.assertEquals(expected[2], expected[3]);
+
+    dbCalls.rebuildAggregates(context);
+    Assert.assertArrayEquals(expected, readStatistics(task.getId()));
+
+    Assert.assertEquals(1, dbCalls.getFilteredTasks(context, null, null).size());
+    Assert.assertEquals(0, dbCalls.getFilteredTasks(context, new Date(expected[3]), null).size());
+    Assert.assertEquals(1, dbCalls.getTaskSummaries(context, null, new Date(expected[2] + 1))
+        .size());
+  }
+
+  /**
+   * Bounded ranges select tasks by the start of their records, both for the tasks and for
+   * their summaries.
+   */
+  @Test
+  public void testSummariesFilterByRange() {
+    List<Task> tasks = dbCalls.getTasks(context);
+    Task early = tasks.get(0);
+    Task late = tasks.get(1);
+    dbCalls.persistRecord(context, Record.fromMillis(0, 1000L, 2000L), early);
+    dbCalls.persistRecord(context, Record.fromMillis(0, 5000L, 7000L), late);
+
+    List<TaskSummary> after = dbCalls.getTaskSummaries(context, new Date(3000L), null);
+    Assert.assertEquals(1, after.size());
+    Assert.assertEquals(late.getId(), after.get(0).getId());
+    Assert.assertEquals(2000L, after.get(0).getTotalMillis());
+
+    List<TaskSummary> before = dbCalls.getTaskSummaries(context, null, new Date(3000L));
+    Assert.assertEquals(1, before.size());
+    Assert.assertEquals(early.getId(), before.get(0).getId());
+
+    Assert.assertEquals(2, dbCalls.getTaskSummaries(context, new Date(500L), new Date(6000L))
+        .size());
+    Assert.assertEquals(0, dbCalls.getTaskSummaries(context, new Date(7000L), null).size());
+    Assert.assertEquals(1, dbCalls.getFilteredTasks(context, new Date(3000L), new Date(6000L))
+        .size());
+  }
+
+  private long[] readStatistics(long taskId) {
+    SQLiteDatabase db = dbManager.getReadableDatabase();
+    Cursor cursor = db.query(DbStatements.TABLE_NAME_TASK,
+        new String[]{DbStatements.COLUMN_NAME_TOTAL_MILLIS, DbStatements.COLUMN_NAME_RECORD_COUNT,
+            DbStatements.COLUMN_NAME_MIN_START, DbStatements.COLUMN_NAME_MAX_START},
+        DbStatements._ID + " = ?", new String[]{String.valueOf(taskId)}, null, null, null);
+
+    cursor.moveToFirst();
+    long[] statistics = {cursor.getLong(0), cursor.getLong(1), cursor.getLong(2),
+        cursor.getLong(3)};
+    cursor.close();
+    return statistics;
+  }
+}
@@ -0,0 +1,137 @@
+package de.hdmstuttgart.zeitfresser.db;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import de.hdmstuttgart.zeitfresser.model.EpochDays;
+import de.hdmstuttgart.zeitfresser.model.Record;
+import de.hdmstuttgart.zeitfresser.model.Task;
+import de.hdmstuttgart.zeitfresser.model.TaskSummary;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Checks that {@link DbCalls#getWindowSummaries(Context, Date, Date)}, which combines the daily
+ * totals with clipped partial days, agrees with clipping the loaded records in memory.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WindowSummariesTest {
+
+  private static final String DATABASE_NAME = "window-summaries-test.db";
+  private static final long HOUR = 60 * 60 * 1000L;
+
+  private Context context;
+  private DbManager dbManager;
+  private DbCalls dbCalls;
+
+  /**
+   * Start with a fresh database containing the initial tasks only.
+   */
+  @Before
+  public void setUp() {
+    context = InstrumentationRegistry.getTargetContext();
+    context.deleteDatabase(DATABASE_NAME);
+    dbManager = new DbManager(context, DATABASE_NAME);
+    dbCalls = new DbCalls(DATABASE_NAME) {
+      @Override
+      DbManager createDbManager(Context context) {
+        return dbManager;
+      }
+    };
+  }
+
+  @After
+  public void tearDown() {
+    dbManager.close();
+    context.deleteDatabase(DATABASE_NAME);
+  }
+
+  /**
+   * Records spanning several days are clipped to windows with and without whole days inside,
+   * with bounds at and between midnights, and to half open windows.
+   */
+  @Test
+  public void testWindowSummariesMatchInMemoryClipping() {
+    long midnight = findMidnight();
+    persistRecords(midnight);
+
+    compareWindows(midnight);
+  }
+
+  /**
+   * Daily totals written in one time zone still yield the right results after the default time
+   * zone has changed.
+   */
+  @Test
+  public void testWindowSummariesFollowTimeZoneChange() {
+    TimeZone defaultZone = TimeZone.getDefault();
+    try {
+      TimeZone.setDefault(TimeZone.getTimeZone("Pacific/Kiritimati"));
+      long midnight = findMidnight();
+      persistRecords(midnight);
+      compareWindows(midnight);
+
+      TimeZone.setDefault(TimeZone.getTimeZone("Pacific/Pago_Pago"));
+      compareWindows(findMidnight());
+    } finally {
+      TimeZone.setDefault(defaultZone);
+    }
+  }
+
+  /**
+   * Returns the start of the day ten days ago in the default time zone.
+   */
+  private static long findMidnight() {
+    TimeZone timeZone = TimeZone.getDefault();
+    return EpochDays.startOf(EpochDays.dayOf(System.currentTimeMillis(), timeZone) - 10,
+        timeZone);
+  }
+
+  private void persistRecords(long midnight) {
+    List<Task> tasks = dbCalls.getTasks(context);
+    Task first = tasks.get(0);
+    Task second = tasks.get(1);
+    List<Record> records = Arrays.asList(
+        Record.fromMillis(0, midnight - 3 * HOUR, midnight + 50 * HOUR),
+        Record.fromMillis(0, midnight + 60 * HOUR, midnight + 61 * HOUR),
+        Record.fromMillis(0, midnight + 5 * HOUR, midnight + 7 * HOUR));
+    dbCalls.persistRecords(context, records, Arrays.asList(first, first, second));
+  }
+
+  private void compareWindows(long midnight) {
+    List<Task> loaded = dbCalls.getTasks(context);
+    Date[][] windows = {
+        {new Date(midnight), new Date(midnight + 24 * HOUR)},
+        {new Date(midnight + 6 * HOUR), new Date(midnight + 60 * HOUR + 30 * 60 * 1000L)},
+        {new Date(midnight + 1 * HOUR), new Date(midnight + 2 * HOUR)},
+        {new Date(midnight - 2 * HOUR), null},
+        {null, new Date(midnight + 30 * HOUR)},
+        {null, null}};
+
+    for (Date[] window : windows) {
+      List<TaskSummary> summaries = dbCalls.getWindowSummaries(context, window[0], window[1]);
+      long from = window[0] != null ? window[0].getTime() : Long.MIN_VALUE;
+      long until = window[1] != null ? window[1].getTime() : Long.MAX_VALUE;
+
+      int index = 0;
+      for (Task task : loaded) {
+        long expected = task.getDurationMillisBetween(from, until);
+        if (expected > 0) {
+          Assert.assertEquals(TaskSummary.of(task.getId(), task.getName(), expected),
+              summaries.get(index++));
+        }
+      }
+      Assert.assertEquals(index, summaries.size());
+    }
+  }
+}
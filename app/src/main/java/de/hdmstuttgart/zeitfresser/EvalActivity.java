@@ -15,7 +15,7 @@ import com.github.mikephil.charting.data.PieDataSet;
 import com.github.mikephil.charting.utils.ColorTemplate;
 
 import de.hdmstuttgart.zeitfresser.db.DbManager;
-import de.hdmstuttgart.zeitfresser.model.Task;
+import de.hdmstuttgart.zeitfresser.model.TaskSummary;
 import de.hdmstuttgart.zeitfresser.model.manager.DbTaskManager;
 
 import java.util.Calendar;
@@ -26,6 +26,11 @@ import java.util.List;
 
 public class EvalActivity extends CommonActivity {
 
+  /**
+   * The maximum number of tasks getting a slice of their own, the remaining ones share a slice.
+   */
+  static final int MAX_PIE_SLICES = 8;
+
   private DatePickerDialog fromDatePicker;
   private DatePickerDialog toDatePicker;
   private boolean fromDateSet = false;
@@ -63,13 +68,19 @@ public class EvalActivity extends CommonActivity {
     pieChart.setData(generatePieData());
   }
 
+  @Override
+  protected void onDestroy() {
+    taskManager.close();
+    super.onDestroy();
+  }
+
   /**
    * Creates data for the PieChart depending on selected values from the two DatePickers.
    */
   private PieData generatePieData() {
-    List<Task> taskList = getTaskList();
-    List<String> labelList = this.taskManager.asNamesList(taskList);
-    List<Entry> entryList = this.taskManager.asEntryList(taskList);
+    List<TaskSummary> summaries = getTaskSummaries();
+    List<String> labelList = this.taskManager.asSummaryNamesList(summaries);
+    List<Entry> entryList = this.taskManager.asSummaryEntryList(summaries);
 
     PieDataSet dataSet = new PieDataSet(entryList, "Time spent");
     dataSet.setColors(ColorTemplate.COLORFUL_COLORS); // set the color
@@ -146,9 +157,11 @@ public class EvalActivity extends CommonActivity {
   }
 
   /**
-   * Returns the task list depending on the date values selected.
+   * Returns the time spent per task between the date values selected, for the
+   * {@link #MAX_PIE_SLICES} largest tasks and the sum of the others. Records reaching beyond the
+   * selected dates only count with the part inside.
    */
-  private List<Task> getTaskList() {
+  private List<TaskSummary> getTaskSummaries() {
     Date from = null;
     Date to = null;
 
@@ -168,6 +181,7 @@ public class EvalActivity extends CommonActivity {
       );
     }
 
-    return this.taskManager.getFilteredTasks(from, to);
+    return this.taskManager.topTasks(from, to, MAX_PIE_SLICES,
+        getString(R.string.eval_other_tasks));
   }
 }
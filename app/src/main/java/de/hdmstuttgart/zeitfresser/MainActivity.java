@@ -3,6 +3,7 @@ package de.hdmstuttgart.zeitfresser;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.View;
+import android.view.ViewGroup;
 import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.ListView;
@@ -33,7 +34,19 @@ public class MainActivity extends CommonActivity {
 
     final ListView listview = (ListView) findViewById(R.id.listView);
     final List<Task> list = getListElements();
-    final ArrayAdapter adapter = new ArrayAdapter(this, android.R.layout.simple_list_item_1, list);
+    // rows are highlighted when they're bound, so tasks which are still running after a restart
+    // and recycled rows show the right state
+    final ArrayAdapter<Task> adapter =
+        new ArrayAdapter<Task>(this, android.R.layout.simple_list_item_1, list) {
+          @Override
+          public View getView(int position, View convertView, ViewGroup parent) {
+            View view = super.getView(position, convertView, parent);
+            view.setBackgroundColor(getResources().getColor(
+                taskManager.isTaskActive(getItem(position))
+                    ? R.color.colorAccent : android.R.color.transparent));
+            return view;
+          }
+        };
     listview.setAdapter(adapter);
 
     listview.setOnItemClickListener(new AdapterView.OnItemClickListener() {
@@ -45,7 +58,7 @@ public class MainActivity extends CommonActivity {
         if (taskManager.isTaskActive(item)) {
           Log.v("MainActivity", "Stopping task " + item.getName());
           taskManager.stopTask(item);
-          view.setBackgroundColor(getResources().getColor(android.R.color.transparent));
+          adapter.notifyDataSetChanged();
           Toast.makeText(
                   getApplicationContext(),
                   item + " stopped. Duration: "
@@ -55,7 +68,7 @@ public class MainActivity extends CommonActivity {
         } else {
           Log.v("MainActivity", "Starting task " + item);
           taskManager.startTask(item);
-          view.setBackgroundColor(getResources().getColor(R.color.colorAccent));
+          adapter.notifyDataSetChanged();
           Toast.makeText(
                   getApplicationContext(),
                   item + " started",
@@ -66,6 +79,22 @@ public class MainActivity extends CommonActivity {
     });
   }
 
+  /**
+   * The activity may be killed any time after it has been paused, so records which are still
+   * queued for writing are persisted here.
+   */
+  @Override
+  protected void onPause() {
+    taskManager.flush();
+    super.onPause();
+  }
+
+  @Override
+  protected void onDestroy() {
+    taskManager.close();
+    super.onDestroy();
+  }
+
   /**
    * Returns a list of tasks to be displayed.
    */
@@ -0,0 +1,158 @@
+package de.hdmstuttgart.zeitfresser.db;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import de.hdmstuttgart.zeitfresser.model.EpochDays;
+
+import java.util.TimeZone;
+
+/**
+ * Maintains the {@link DbStatements#TABLE_NAME_DAY_TOTALS} rollup. An instance keeps compiled
+ * statements for one database and has to be closed after use. All writes are expected to run
+ * inside the transaction which also writes the records. The days of the rollup are those of the
+ * time zone it has been built for, see {@link #ensureTimeZone(SQLiteDatabase, TimeZone)}.
+ */
+final class DayTotals {
+
+  private static final int REBUILD_BATCH_SIZE = 500;
+
+  private final SQLiteStatement update;
+  private final SQLiteStatement insert;
+  private final TimeZone timeZone;
+
+  DayTotals(SQLiteDatabase db, TimeZone timeZone) {
+    this.update = db.compileStatement(DbStatements.SQL_UPDATE_DAY_TOTAL);
+    this.insert = db.compileStatement(DbStatements.SQL_INSERT_DAY_TOTAL);
+    this.timeZone = timeZone;
+  }
+
+  /**
+   * Add a record to the rollup. A record crossing midnight is split at every local midnight it
+   * covers. Records without start or end, or with a negative duration, are ignored.
+   *
+   * @param taskId The task the record belongs to.
+   * @param start  Start of the record in epoch milliseconds.
+   * @param end    End of the record in epoch milliseconds.
+   */
+  void add(long taskId, long start, long end) {
+    if (end < start) {
+      return;
+    }
+
+    long day = EpochDays.dayOf(start, timeZone);
+    long pieceStart = start;
+    int recordCount = 1;
+
+    while (true) {
+      long nextDayStart = EpochDays.startOf(day + 1, timeZone);
+      if (end <= nextDayStart) {
+        addToDay(taskId, day, end - pieceStart, recordCount);
+        return;
+      }
+
+      addToDay(taskId, day, nextDayStart - pieceStart, recordCount);
+      pieceStart = nextDayStart;
+      recordCount = 0;
+      day++;
+    }
+  }
+
+  void close() {
+    update.close();
+    insert.close();
+  }
+
+  private void addToDay(long taskId, long epochDay, long millis, int recordCount) {
+    bind(update, taskId, epochDay, millis, recordCount);
+    if (update.executeUpdateDelete() == 0) {
+      bind(insert, taskId, epochDay, millis, recordCount);
+      insert.executeInsert();
+    }
+  }
+
+  private static void bind(SQLiteStatement statement, long taskId, long epochDay, long millis,
+                           int recordCount) {
+    statement.bindLong(1, millis);
+    statement.bindLong(2, recordCount);
+    statement.bindLong(3, taskId);
+    statement.bindLong(4, epochDay);
+  }
+
+  /**
+   * Recompute the whole rollup from the record table, e.g. after an upgrade or when the time
+   * zone has changed. Records are read in batches so that the cursor window stays small.
+   *
+   * @param db       The database to rebuild the rollup for.
+   * @param timeZone The time zone defining the day boundaries.
+   */
+  static void rebuild(SQLiteDatabase db, TimeZone timeZone) {
+    String[] columns = {
+        DbStatements._ID,
+        DbStatements.COLUMN_NAME_TASKID,
+        DbStatements.COLUMN_NAME_START,
+        DbStatements.COLUMN_NAME_END
+    };
+    String selection = DbStatements._ID + " > ? AND " + DbStatements.COLUMN_NAME_START
+        + " IS NOT NULL AND " + DbStatements.COLUMN_NAME_END + " IS NOT NULL";
+
+    db.beginTransaction();
+    DayTotals dayTotals = new DayTotals(db, timeZone);
+    try {
+      db.execSQL(DbStatements.SQL_DELETE_DAY_TOTALS);
+      db.execSQL(DbStatements.SQL_DELETE_DAY_TOTALS_ZONE);
+      db.execSQL(DbStatements.SQL_INSERT_DAY_TOTALS_ZONE, new Object[]{timeZone.getID()});
+
+      long lastId = Long.MIN_VALUE;
+      boolean hasMoreRows = true;
+      while (hasMoreRows) {
+        Cursor cursor = db.query(
+                DbStatements.TABLE_NAME_RECORD,
+                columns,
+                selection,
+                new String[]{String.valueOf(lastId)},
+                null,
+                null,
+                DbStatements._ID + " " + DbStatements.ASC,
+                String.valueOf(REBUILD_BATCH_SIZE)
+        );
+
+        cursor.moveToFirst();
+        while (!cursor.isAfterLast()) {
+          lastId = cursor.getLong(0);
+          dayTotals.add(cursor.getLong(1), cursor.getLong(2), cursor.getLong(3));
+          cursor.moveToNext();
+        }
+
+        hasMoreRows = cursor.getCount() == REBUILD_BATCH_SIZE;
+        cursor.close();
+      }
+      db.setTransactionSuccessful();
+    } finally {
+      dayTotals.close();
+      db.endTransaction();
+    }
+  }
+
+  /**
+   * Rebuild the rollup unless it has been built for the given time zone. Queries split windows
+   * into days of the current time zone, so the rollup has to be rebuilt after the device's time
+   * zone has changed, and it is built lazily after it has been created or upgraded.
+   *
+   * @param db       The database to check the rollup of.
+   * @param timeZone The time zone defining the day boundaries.
+   * @return Whether the rollup has been rebuilt.
+   */
+  static boolean ensureTimeZone(SQLiteDatabase db, TimeZone timeZone) {
+    Cursor cursor = db.rawQuery(DbStatements.SQL_SELECT_DAY_TOTALS_ZONE, null);
+    String builtFor = cursor.moveToFirst() ? cursor.getString(0) : null;
+    cursor.close();
+
+    if (timeZone.getID().equals(builtFor)) {
+      return false;
+    }
+    rebuild(db, timeZone);
+    return true;
+  }
+}
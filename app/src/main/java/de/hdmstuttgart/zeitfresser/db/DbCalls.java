@@ -1,15 +1,21 @@
 package de.hdmstuttgart.zeitfresser.db;
 
-import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 
+import de.hdmstuttgart.zeitfresser.model.EpochDays;
 import de.hdmstuttgart.zeitfresser.model.Record;
 import de.hdmstuttgart.zeitfresser.model.Task;
+import de.hdmstuttgart.zeitfresser.model.TaskSummary;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
 
 
 public class DbCalls {
@@ -22,106 +28,352 @@ public class DbCalls {
   }
 
   DbManager createDbManager(Context context) {
-    return new DbManager(context, this.databaseName);
+    return DbManager.acquire(context, this.databaseName);
   }
 
-  private String[] getProjection(String... columns) {
-    return columns;
+  /**
+   * Returns the shared {@link DbManager}, acquiring it on first use. The connection stays open
+   * until {@link #close()} is called, so queries must not close the database themselves.
+   */
+  private synchronized DbManager getDbManager(Context context) {
+    if (dbManager == null) {
+      dbManager = createDbManager(context);
+    }
+    return dbManager;
   }
 
-  private String getSortOrder(String column, String sort) {
-    return column + " " + sort;
+  /**
+   * Release the database reference held by this instance. The underlying connection is closed
+   * once no other {@link DbCalls} instance uses it anymore. Subsequent calls reacquire it.
+   */
+  public synchronized void close() {
+    if (dbManager != null) {
+      DbManager.release(dbManager);
+      dbManager = null;
+    }
   }
 
   /**
-   * Fetch all tasks from database.
+   * Fetch all tasks from database. Tasks and their records are read with a single joined query
+   * and the task graph is built while walking the cursor exactly once.
    *
    * @param context The current Activity context.
    * @return A list of tasks.
    */
   public ArrayList<Task> getTasks(Context context) {
-    dbManager = createDbManager(context);
-    ArrayList<Task> result = new ArrayList<>();
-    SQLiteDatabase db = dbManager.getReadableDatabase();
-
-    Cursor cursor = db.query(
-            DbStatements.TABLE_NAME_TASK,
-            getProjection(DbStatements.COLUMN_NAME_TITLE, DbStatements._ID),
-            null,
-            null,
-            null,
-            null,
-            getSortOrder(DbStatements.COLUMN_NAME_TITLE, DbStatements.ASC)
-    );
+    SQLiteDatabase db = getDbManager(context).getReadableDatabase();
+
+    Cursor cursor = db.rawQuery(DbStatements.SQL_SELECT_TASKS_WITH_RECORDS, null);
+    ArrayList<Task> result = readTasksWithRecords(cursor);
+    cursor.close();
+
+    return result;
+  }
+
+  /**
+   * Fetch the tasks which have records in the {@link Date} range between <code>from</code> and
+   * <code>until</code> and a total duration greater than zero. This yields the same tasks as
+   * {@code TaskManager.getFilteredTasks(Date, Date)}, but the filtering is done by SQLite on the
+   * statistics cached in the task table, so only the records of matching tasks are read. A
+   * <code>null</code> bound is ignored.
+   *
+   * @param context The current Activity context.
+   * @param from    Only tasks with a record starting after this date (if not null).
+   * @param until   Only tasks with a record starting before this date (if not null).
+   * @return A list of matching tasks including all of their records.
+   */
+  public ArrayList<Task> getFilteredTasks(Context context, Date from, Date until) {
+    StringBuilder sql = new StringBuilder(DbStatements.SQL_SELECT_TASKS_WITH_RECORDS_FROM);
+    List<String> args = appendTaskFilter(sql, from, until);
+    sql.append(DbStatements.SQL_ORDER_TASKS_WITH_RECORDS);
+
+    SQLiteDatabase db = getDbManager(context).getReadableDatabase();
+
+    Cursor cursor = db.rawQuery(sql.toString(), args.toArray(new String[args.size()]));
+    ArrayList<Task> result = readTasksWithRecords(cursor);
+    cursor.close();
+
+    return result;
+  }
+
+  /**
+   * Fetch a {@link TaskSummary} for every task {@link #getFilteredTasks(Context, Date, Date)}
+   * would return. Totals and range conditions are taken from the statistics cached in the task
+   * table, so SQLite reads exactly one row per task.
+   *
+   * @param context The current Activity context.
+   * @param from    Only tasks with a record starting after this date (if not null).
+   * @param until   Only tasks with a record starting before this date (if not null).
+   * @return A list of summaries of the matching tasks.
+   */
+  public ArrayList<TaskSummary> getTaskSummaries(Context context, Date from, Date until) {
+    StringBuilder sql = new StringBuilder(DbStatements.SQL_SELECT_TASK_SUMMARIES_FROM);
+    List<String> args = appendTaskFilter(sql, from, until);
+    sql.append(DbStatements.SQL_ORDER_TASK_SUMMARIES);
+
+    SQLiteDatabase db = getDbManager(context).getReadableDatabase();
+
+    Cursor cursor = db.rawQuery(sql.toString(), args.toArray(new String[args.size()]));
+    ArrayList<TaskSummary> result = new ArrayList<>(cursor.getCount());
+    int idIndex = cursor.getColumnIndexOrThrow(DbStatements._ID);
+    int nameIndex = cursor.getColumnIndexOrThrow(DbStatements.COLUMN_NAME_TITLE);
+    int totalIndex = cursor.getColumnIndexOrThrow(DbStatements.COLUMN_NAME_TOTAL);
 
     cursor.moveToFirst();
     while (!cursor.isAfterLast()) {
-      Task task = Task.fromCursor(cursor);
-      populateTaskWithRecords(context, task);
-      result.add(task);
+      result.add(TaskSummary.fromCursor(cursor, idIndex, nameIndex, totalIndex));
       cursor.moveToNext();
     }
     cursor.close();
-    db.close();
 
     return result;
   }
 
-  private void populateTaskWithRecords(Context context, Task task) {
-    //dbManager = createDbManager(context);
-    SQLiteDatabase db = dbManager.getReadableDatabase();
-
-    Cursor cursor = db.query(
-            DbStatements.TABLE_NAME_RECORD,
-            getProjection(
-                    DbStatements._ID,
-                    DbStatements.COLUMN_NAME_START,
-                    DbStatements.COLUMN_NAME_END
-            ),
-            DbStatements.COLUMN_NAME_TASKID + " = " + task.getId(),
-            null,
-            null,
-            null,
-            null
-    );
+  /**
+   * Fetch the time every task spent in the window [<code>from</code>, <code>until</code>), see
+   * {@code TaskManager.getWindowSummaries(Date, Date)}. Whole days inside the window are read
+   * from the daily totals; only the records overlapping the partial days at either end of the
+   * window are clipped individually. Days follow the default time zone; if it has changed since
+   * the daily totals were built, they are rebuilt first.
+   *
+   * @param context The current Activity context.
+   * @param from    Start of the window, inclusive (unbounded if null).
+   * @param until   End of the window, exclusive (unbounded if null).
+   * @return A list of summaries of the tasks with time in the window.
+   */
+  public ArrayList<TaskSummary> getWindowSummaries(Context context, Date from, Date until) {
+    if (from != null && until != null && !from.before(until)) {
+      return new ArrayList<>();
+    }
+
+    TimeZone timeZone = TimeZone.getDefault();
+    long firstDay = Long.MIN_VALUE;
+    long endDay = Long.MAX_VALUE;
+    long[] partial = new long[4];
+
+    if (from != null) {
+      long day = EpochDays.dayOf(from.getTime(), timeZone);
+      long dayStart = EpochDays.startOf(day, timeZone);
+      firstDay = dayStart == from.getTime() ? day : day + 1;
+      partial[0] = from.getTime();
+      partial[1] = EpochDays.startOf(firstDay, timeZone);
+    }
+    if (until != null) {
+      endDay = EpochDays.dayOf(until.getTime(), timeZone);
+      partial[2] = EpochDays.startOf(endDay, timeZone);
+      partial[3] = until.getTime();
+    }
+    if (firstDay >= endDay) {
+      // no whole day inside, clip everything to the window itself
+      partial[0] = from.getTime();
+      partial[1] = until.getTime();
+      partial[2] = partial[3];
+    }
+
+    String[] args = {String.valueOf(firstDay), String.valueOf(endDay),
+        String.valueOf(partial[0]), String.valueOf(partial[1]),
+        String.valueOf(partial[2]), String.valueOf(partial[3])};
+
+    // writable, in case the daily totals have to be rebuilt for the current time zone
+    SQLiteDatabase db = getDbManager(context).getWritableDatabase();
+    DayTotals.ensureTimeZone(db, timeZone);
+    Cursor cursor = db.rawQuery(DbStatements.SQL_SELECT_WINDOW_SUMMARIES, args);
+    ArrayList<TaskSummary> result = new ArrayList<>(cursor.getCount());
+    int idIndex = cursor.getColumnIndexOrThrow(DbStatements._ID);
+    int nameIndex = cursor.getColumnIndexOrThrow(DbStatements.COLUMN_NAME_TITLE);
+    int totalIndex = cursor.getColumnIndexOrThrow(DbStatements.COLUMN_NAME_TOTAL);
 
     cursor.moveToFirst();
     while (!cursor.isAfterLast()) {
-      Record record = Record.fromCursor(cursor);
-      task.addRecord(record);
+      result.add(TaskSummary.fromCursor(cursor, idIndex, nameIndex, totalIndex));
       cursor.moveToNext();
     }
     cursor.close();
-    db.close();
+
+    return result;
+  }
+
+  /**
+   * Append the WHERE clause shared by {@link #getFilteredTasks(Context, Date, Date)} and
+   * {@link #getTaskSummaries(Context, Date, Date)} and return its arguments.
+   */
+  private static List<String> appendTaskFilter(StringBuilder sql, Date from, Date until) {
+    List<String> args = new ArrayList<>(2);
+    sql.append(DbStatements.SQL_WHERE).append(DbStatements.SQL_WHERE_TASK_HAS_DURATION);
+
+    if (from != null) {
+      sql.append(DbStatements.SQL_AND).append(DbStatements.SQL_WHERE_TASK_HAS_RECORD_AFTER);
+      args.add(String.valueOf(from.getTime()));
+    }
+
+    if (until != null) {
+      sql.append(DbStatements.SQL_AND).append(DbStatements.SQL_WHERE_TASK_HAS_RECORD_BEFORE);
+      args.add(String.valueOf(until.getTime()));
+    }
+
+    return args;
   }
 
   /**
-   * Add a single {@link Record} to the database.
+   * Build the task graph from a cursor over {@link DbStatements#SQL_SELECT_TASKS_WITH_RECORDS}.
+   * Rows belonging to the same task are adjacent, so a new task starts whenever the task id
+   * changes. Tasks which are marked as running are started again at their stored start.
+   */
+  private ArrayList<Task> readTasksWithRecords(Cursor cursor) {
+    ArrayList<Task> result = new ArrayList<>();
+
+    int taskIdIndex = cursor.getColumnIndexOrThrow(DbStatements._ID);
+    int nameIndex = cursor.getColumnIndexOrThrow(DbStatements.COLUMN_NAME_TITLE);
+    int activeStartIndex = cursor.getColumnIndexOrThrow(DbStatements.COLUMN_NAME_ACTIVE_START);
+    int recordIdIndex = cursor.getColumnIndexOrThrow(DbStatements.COLUMN_NAME_RECORD_ID);
+    int startIndex = cursor.getColumnIndexOrThrow(DbStatements.COLUMN_NAME_START);
+    int endIndex = cursor.getColumnIndexOrThrow(DbStatements.COLUMN_NAME_END);
+
+    Task task = null;
+    cursor.moveToFirst();
+    while (!cursor.isAfterLast()) {
+      if (task == null || task.getId() != cursor.getLong(taskIdIndex)) {
+        task = Task.fromCursor(cursor, taskIdIndex, nameIndex);
+        if (!cursor.isNull(activeStartIndex)) {
+          task.start(cursor.getLong(activeStartIndex));
+        }
+        result.add(task);
+      }
+
+      // LEFT JOIN: tasks without any records come with NULL record columns
+      if (!cursor.isNull(recordIdIndex)) {
+        task.addRecord(Record.fromCursor(cursor, recordIdIndex, startIndex, endIndex));
+      }
+      cursor.moveToNext();
+    }
+
+    return result;
+  }
+
+  /**
+   * Add a single {@link Record} to the database, see
+   * {@link #persistRecords(Context, List, List)}.
    *
    * @param context The current Activity context.
    * @param record  The {@link Record} to persist.
    * @param task    The {@link Task} the record is attached to.
    */
   public void persistRecord(Context context, Record record, Task task) {
-    //dbManager = createDbManager(context);
-    SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
+    persistRecords(context, Collections.singletonList(record), Collections.singletonList(task));
+  }
 
-    ContentValues values = new ContentValues();
-    values.put(DbStatements.COLUMN_NAME_TASKID, task.getId());
+  /**
+   * Add several records to the database within a single transaction, in list order. The record
+   * at position <code>i</code> belongs to the task at position <code>i</code>. The statistics in
+   * the task table and the daily totals are updated in the same transaction.
+   *
+   * @param context The current Activity context.
+   * @param records The records to persist.
+   * @param tasks   The tasks the records are attached to.
+   */
+  public void persistRecords(Context context, List<Record> records, List<Task> tasks) {
+    persistRecords(context, records, tasks, Collections.<Task, Long>emptyMap());
+  }
 
-    if (record.getStart() != null) {
-      values.put(DbStatements.COLUMN_NAME_START, formatter.format(record.getStart()));
-    } else {
-      values.put(DbStatements.COLUMN_NAME_START, "");
+  /**
+   * Add several records and mark tasks as running within a single transaction, see
+   * {@link #persistRecords(Context, List, List)}. A task stays marked as running until the
+   * record started at its mark is added, so a stopped record and the start of the next task are
+   * written at once.
+   *
+   * @param context      The current Activity context.
+   * @param records      The records to persist.
+   * @param tasks        The tasks the records are attached to.
+   * @param activeStarts The start of the running record per task which has been started.
+   */
+  public void persistRecords(Context context, List<Record> records, List<Task> tasks,
+                             Map<Task, Long> activeStarts) {
+    if (records.size() != tasks.size()) {
+      throw new IllegalArgumentException("Arguments 'records' and 'tasks' must have equal size!");
     }
 
-    if (record.getEnd() != null) {
-      values.put(DbStatements.COLUMN_NAME_END, formatter.format(record.getEnd()));
-    } else {
-      values.put(DbStatements.COLUMN_NAME_END, "");
+    SQLiteDatabase db = getDbManager(context).getWritableDatabase();
+    SQLiteStatement insert = db.compileStatement(DbStatements.SQL_INSERT_RECORD);
+    SQLiteStatement updateTask = db.compileStatement(DbStatements.SQL_UPDATE_TASK_STATISTICS);
+    SQLiteStatement markActive = db.compileStatement(DbStatements.SQL_UPDATE_TASK_ACTIVE_START);
+    SQLiteStatement unmarkActive = db.compileStatement(DbStatements.SQL_CLEAR_TASK_ACTIVE_START);
+    TimeZone timeZone = TimeZone.getDefault();
+    DayTotals dayTotals = new DayTotals(db, timeZone);
+
+    db.beginTransaction();
+    try {
+      // within the transaction, so the records are added to a rollup of the same time zone
+      DayTotals.ensureTimeZone(db, timeZone);
+
+      // mark first: the records only unmark tasks whose mark matches their start
+      for (Map.Entry<Task, Long> activeStart : activeStarts.entrySet()) {
+        markActive.bindLong(1, activeStart.getValue());
+        markActive.bindLong(2, activeStart.getKey().getId());
+        markActive.executeUpdateDelete();
+      }
+
+      for (int i = 0; i < records.size(); i++) {
+        Record record = records.get(i);
+        long taskId = tasks.get(i).getId();
+        insert.bindLong(1, taskId);
+        bindMillis(insert, 2, record.getStartMillis());
+        bindMillis(insert, 3, record.getEndMillis());
+        insert.executeInsert();
+
+        updateTask.bindLong(1, record.getDuration());
+        for (int index = 2; index <= 5; index++) {
+          bindMillis(updateTask, index, record.getStartMillis());
+        }
+        updateTask.bindLong(6, taskId);
+        updateTask.executeUpdateDelete();
+
+        unmarkActive.bindLong(1, taskId);
+        bindMillis(unmarkActive, 2, record.getStartMillis());
+        unmarkActive.executeUpdateDelete();
+
+        if (record.getStartMillis() != Record.UNSET && record.getEndMillis() != Record.UNSET) {
+          dayTotals.add(taskId, record.getStartMillis(), record.getEndMillis());
+        }
+      }
+      db.setTransactionSuccessful();
+    } finally {
+      db.endTransaction();
+      insert.close();
+      updateTask.close();
+      markActive.close();
+      unmarkActive.close();
+      dayTotals.close();
     }
+    DbManager.onDataChanged();
+  }
+
+  /**
+   * Recompute the task statistics and the daily totals from all records. They are kept current
+   * on every insert and the daily totals follow time zone changes by themselves, so this is only
+   * needed when records have been written by other means.
+   *
+   * @param context The current Activity context.
+   */
+  public void rebuildAggregates(Context context) {
+    DbManager.rebuildAggregates(getDbManager(context).getWritableDatabase());
+    DbManager.onDataChanged();
+  }
+
+  /**
+   * Returns the version of the data written to the database, see
+   * {@link DbManager#getDataVersion()}.
+   *
+   * @return The current data version.
+   */
+  public long getDataVersion() {
+    return DbManager.getDataVersion();
+  }
 
-    SQLiteDatabase db = dbManager.getWritableDatabase();
-    db.insert(DbStatements.TABLE_NAME_RECORD, null, values);
+  private static void bindMillis(SQLiteStatement statement, int index, long millis) {
+    if (millis != Record.UNSET) {
+      statement.bindLong(index, millis);
+    } else {
+      statement.bindNull(index);
+    }
   }
 }
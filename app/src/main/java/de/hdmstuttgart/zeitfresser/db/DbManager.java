@@ -2,16 +2,103 @@ package de.hdmstuttgart.zeitfresser.db;
 
 import android.content.ContentValues;
 import android.content.Context;
+import android.database.CharArrayBuffer;
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class DbManager extends SQLiteOpenHelper {
-  public static final int DATABASE_VERSION = 1;
+  public static final int DATABASE_VERSION = 7;
   public static final String DATABASE_NAME = "zeitfresser.db";
+  private static final int MIGRATION_BATCH_SIZE = 500;
+  private static final Map<String, DbManager> SHARED_INSTANCES = new HashMap<>();
+  // process-wide, so it never goes back when a shared instance is closed and reopened
+  private static final AtomicLong DATA_VERSION = new AtomicLong();
   private Context context = null;
+  private String sharedName = null;
+  private int references = 0;
+  private DbTuningProfile tuningProfile = DbTuningProfile.defaults();
+
+  /**
+   * Obtain the process-wide {@link DbManager} for the given database. All callers share a single
+   * helper and with it a single long-lived connection, so screens don't have to reopen the
+   * database file and redo the schema check every time they load data. The shared connection uses
+   * {@link DbTuningProfile#readOptimized()}. Every call must be paired
+   * with a call to {@link #release(DbManager)}; the connection is closed once the last reference
+   * has been released.
+   *
+   * @param context Any context, the helper holds on to the application context only.
+   * @param dbName  Name of the db
+   * @return The shared instance for <code>dbName</code>.
+   */
+  public static DbManager acquire(Context context, String dbName) {
+    if (context == null) {
+      throw new IllegalArgumentException("Argument 'context' must not be null!");
+    }
+
+    synchronized (SHARED_INSTANCES) {
+      DbManager instance = SHARED_INSTANCES.get(dbName);
+      if (instance == null) {
+        Context appContext = context.getApplicationContext();
+        instance = new DbManager(appContext != null ? appContext : context, dbName);
+        instance.sharedName = dbName;
+        instance.setTuningProfile(DbTuningProfile.readOptimized());
+        SHARED_INSTANCES.put(dbName, instance);
+      }
+      instance.references++;
+      return instance;
+    }
+  }
+
+  /**
+   * Give back a reference obtained by {@link #acquire(Context, String)}. Closes the database when
+   * no one else is using it anymore.
+   *
+   * @param instance The instance to release.
+   */
+  public static void release(DbManager instance) {
+    if (instance == null) {
+      throw new IllegalArgumentException("Argument 'instance' must not be null!");
+    }
+
+    synchronized (SHARED_INSTANCES) {
+      if (instance.references == 0) {
+        throw new IllegalStateException("Unable to release unreferenced database!");
+      }
+
+      instance.references--;
+      if (instance.references == 0) {
+        SHARED_INSTANCES.remove(instance.sharedName);
+        instance.close();
+      }
+    }
+  }
+
+  /**
+   * Returns a counter which grows with every write committed through {@link DbCalls}, whichever
+   * instance made it. Components caching query results compare it to the value they read before
+   * querying, so they see the writes of other components on the same database. Counting
+   * ourselves is necessary since <code>PRAGMA data_version</code> only reflects writes of other
+   * connections, while all components share one.
+   *
+   * @return The current data version.
+   */
+  public static long getDataVersion() {
+    return DATA_VERSION.get();
+  }
+
+  /**
+   * Called after a write has been committed.
+   */
+  static void onDataChanged() {
+    DATA_VERSION.incrementAndGet();
+  }
 
   public DbManager(Context context) {
     super(context, DATABASE_NAME, null, DATABASE_VERSION);
@@ -22,10 +109,48 @@ public class DbManager extends SQLiteOpenHelper {
     this.context = context;
   }
 
+  /**
+   * Set the SQLite settings used for this database. They are applied whenever a connection is
+   * opened, so this has to be called before the first call to {@link #getReadableDatabase()} or
+   * {@link #getWritableDatabase()} (or after {@link #close()}).
+   *
+   * @param tuningProfile The settings to use.
+   */
+  public void setTuningProfile(DbTuningProfile tuningProfile) {
+    if (tuningProfile == null) {
+      throw new IllegalArgumentException("Argument 'tuningProfile' must not be null!");
+    }
+
+    this.tuningProfile = tuningProfile;
+  }
+
+  public DbTuningProfile getTuningProfile() {
+    return tuningProfile;
+  }
+
+  @Override
+  public void onConfigure(SQLiteDatabase sqLiteDatabase) {
+    if (tuningProfile.isWriteAheadLogging()) {
+      sqLiteDatabase.enableWriteAheadLogging();
+    } else {
+      sqLiteDatabase.disableWriteAheadLogging();
+    }
+
+    // PRAGMAs which report their new value can't be run with execSQL()
+    for (String pragma : tuningProfile.getPragmas()) {
+      Cursor cursor = sqLiteDatabase.rawQuery(pragma, null);
+      cursor.moveToFirst();
+      cursor.close();
+    }
+  }
+
   @Override
   public void onCreate(SQLiteDatabase sqLiteDatabase) {
     sqLiteDatabase.execSQL(DbStatements.SQL_CREATE_TASK_TABLE);
     sqLiteDatabase.execSQL(DbStatements.SQL_CREATE_RECORD_TABLE);
+    sqLiteDatabase.execSQL(DbStatements.SQL_CREATE_RECORD_TASK_START_INDEX);
+    sqLiteDatabase.execSQL(DbStatements.SQL_CREATE_DAY_TOTALS_TABLE);
+    sqLiteDatabase.execSQL(DbStatements.SQL_CREATE_DAY_TOTALS_ZONE_TABLE);
     insertInitialValues(sqLiteDatabase);
   }
 
@@ -48,6 +173,8 @@ public class DbManager extends SQLiteOpenHelper {
    */
   public void deleteDatabase(String dbName) {
     if (this.context != null) {
+      getWritableDatabase().execSQL("DROP TABLE " + DbStatements.TABLE_NAME_DAY_TOTALS_ZONE);
+      getWritableDatabase().execSQL("DROP TABLE " + DbStatements.TABLE_NAME_DAY_TOTALS);
       getWritableDatabase().execSQL("DROP TABLE " + DbStatements.TABLE_NAME_RECORD);
       getWritableDatabase().execSQL("DROP TABLE " + DbStatements.TABLE_NAME_TASK);
       this.context.deleteDatabase(dbName);
@@ -55,8 +182,122 @@ public class DbManager extends SQLiteOpenHelper {
   }
 
   @Override
-  public void onUpgrade(SQLiteDatabase sqLiteDatabase, int version, int i1) {
+  public void onUpgrade(SQLiteDatabase sqLiteDatabase, int oldVersion, int newVersion) {
+    if (oldVersion < 2) {
+      convertTimestampsToEpochMillis(sqLiteDatabase);
+    }
+    if (oldVersion < 3) {
+      sqLiteDatabase.execSQL(DbStatements.SQL_CREATE_RECORD_TASK_START_INDEX);
+    }
+    if (oldVersion < 4) {
+      // filled on first use, see DayTotals.ensureTimeZone()
+      sqLiteDatabase.execSQL(DbStatements.SQL_CREATE_DAY_TOTALS_TABLE);
+    }
+    if (oldVersion < 5) {
+      for (String statement : DbStatements.SQL_ADD_TASK_STATISTICS_COLUMNS) {
+        sqLiteDatabase.execSQL(statement);
+      }
+      sqLiteDatabase.execSQL(DbStatements.SQL_UPDATE_ALL_TASK_STATISTICS);
+    }
+    if (oldVersion < 6) {
+      sqLiteDatabase.execSQL(DbStatements.SQL_ADD_TASK_ACTIVE_START_COLUMN);
+    }
+    if (oldVersion < 7) {
+      // the zone of an existing rollup is unknown, so it is rebuilt on first use
+      sqLiteDatabase.execSQL(DbStatements.SQL_CREATE_DAY_TOTALS_ZONE_TABLE);
+    }
+  }
 
+  /**
+   * Recompute everything derived from the record table: the statistics cached in the task table
+   * and the daily totals.
+   *
+   * @param db The database to work on.
+   */
+  static void rebuildAggregates(SQLiteDatabase db) {
+    db.beginTransaction();
+    try {
+      db.execSQL(DbStatements.SQL_UPDATE_ALL_TASK_STATISTICS);
+      DayTotals.rebuild(db, TimeZone.getDefault());
+      db.setTransactionSuccessful();
+    } finally {
+      db.endTransaction();
+    }
+  }
+
+  /**
+   * Version 1 stored record timestamps as formatted strings. Move the old record table aside,
+   * recreate it with INTEGER columns and copy all rows over, converting the timestamps to epoch
+   * milliseconds. Rows are read and written in batches of {@link #MIGRATION_BATCH_SIZE} so that
+   * huge tables don't have to fit into a single cursor window. Values which can't be parsed
+   * (version 1 wrote empty strings for missing dates) become NULL.
+   */
+  private void convertTimestampsToEpochMillis(SQLiteDatabase db) {
+    db.execSQL(DbStatements.SQL_RENAME_RECORD_TABLE_V1);
+    db.execSQL(DbStatements.SQL_CREATE_RECORD_TABLE);
+
+    TimeZone timeZone = TimeZone.getDefault();
+    CharArrayBuffer buffer = new CharArrayBuffer(TimestampCodec.LENGTH);
+    SQLiteStatement insert = db.compileStatement(DbStatements.SQL_INSERT_RECORD_WITH_ID);
+    String[] columns = {
+        DbStatements._ID,
+        DbStatements.COLUMN_NAME_TASKID,
+        DbStatements.COLUMN_NAME_START,
+        DbStatements.COLUMN_NAME_END
+    };
+    long lastId = Long.MIN_VALUE;
+    boolean hasMoreRows = true;
+
+    while (hasMoreRows) {
+      Cursor cursor = db.query(
+              DbStatements.TABLE_NAME_RECORD_V1,
+              columns,
+              DbStatements._ID + " > ?",
+              new String[]{String.valueOf(lastId)},
+              null,
+              null,
+              DbStatements._ID + " " + DbStatements.ASC,
+              String.valueOf(MIGRATION_BATCH_SIZE)
+      );
+
+      db.beginTransaction();
+      try {
+        cursor.moveToFirst();
+        while (!cursor.isAfterLast()) {
+          lastId = cursor.getLong(0);
+          insert.bindLong(1, lastId);
+          insert.bindLong(2, cursor.getLong(1));
+          bindTimestamp(insert, 3, cursor, 2, buffer, timeZone);
+          bindTimestamp(insert, 4, cursor, 3, buffer, timeZone);
+          insert.executeInsert();
+          cursor.moveToNext();
+        }
+        db.setTransactionSuccessful();
+      } finally {
+        db.endTransaction();
+      }
+
+      hasMoreRows = cursor.getCount() == MIGRATION_BATCH_SIZE;
+      cursor.close();
+    }
+
+    insert.close();
+    db.execSQL(DbStatements.SQL_DROP_RECORD_TABLE_V1);
+  }
+
+  /**
+   * Copy a version 1 timestamp column into the reusable buffer and bind it as epoch millis, so
+   * the migration allocates neither a String nor a Date per value.
+   */
+  private static void bindTimestamp(SQLiteStatement statement, int index, Cursor cursor,
+                                    int columnIndex, CharArrayBuffer buffer, TimeZone timeZone) {
+    cursor.copyStringToBuffer(columnIndex, buffer);
+    long millis = TimestampCodec.parse(buffer, timeZone);
+    if (millis != TimestampCodec.INVALID) {
+      statement.bindLong(index, millis);
+    } else {
+      statement.bindNull(index);
+    }
   }
 
   private void insertInitialValues(SQLiteDatabase db) {
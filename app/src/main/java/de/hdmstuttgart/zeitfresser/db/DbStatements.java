@@ -5,37 +5,331 @@ import android.provider.BaseColumns;
 public class DbStatements implements BaseColumns {
   public static final String TABLE_NAME_TASK = "tasks";
   public static final String COLUMN_NAME_TITLE = "name";
+  public static final String COLUMN_NAME_MIN_START = "minStart";
+  public static final String COLUMN_NAME_MAX_START = "maxStart";
+  public static final String COLUMN_NAME_ACTIVE_START = "activeStart";
 
   public static final String TABLE_NAME_RECORD = "record";
   public static final String COLUMN_NAME_TASKID = "taskId";
   public static final String COLUMN_NAME_START = "start";
   public static final String COLUMN_NAME_END = "end";
+  public static final String COLUMN_NAME_RECORD_ID = "recordId";
+  public static final String COLUMN_NAME_TOTAL = "total";
+
+  public static final String TABLE_NAME_DAY_TOTALS = "task_day_totals";
+  public static final String COLUMN_NAME_EPOCH_DAY = "epochDay";
+  public static final String COLUMN_NAME_TOTAL_MILLIS = "totalMillis";
+  public static final String COLUMN_NAME_RECORD_COUNT = "recordCount";
+
+  public static final String TABLE_NAME_DAY_TOTALS_ZONE = "task_day_totals_zone";
+  public static final String COLUMN_NAME_TIME_ZONE = "timeZone";
 
   private static final String TEXT_TYPE = " TEXT";
   private static final String INT_TYPE = " INTEGER";
-  private static final String NUMERIC_TYPE = " NUMERIC";
   private static final String COMMA_SEP = ",";
   private static final String ID_DECL = " INTEGER PRIMARY KEY AUTOINCREMENT";
   private static final String FOREIGN_KEY_START = "FOREIGN KEY(";
   private static final String FOREIGN_KEY_REFERENCE = ") REFERENCES ";
   private static final String FOREIGN_KEY_REFERENCE_START = "(";
   private static final String FOREIGN_KEY_REFERENCE_END = ")";
+  private static final String COUNTER_DEFAULT = " NOT NULL DEFAULT 0";
 
   public static final String ASC = "ASC";
 
+  /**
+   * Besides its name, a task row caches statistics about its records: the total duration, the
+   * number of records and the earliest and latest record start (since database version 5). They
+   * are updated together with every record insert and allow filtering tasks without reading the
+   * record table. While a task is running, its row holds the start of the running record (since
+   * database version 6), see {@link #SQL_UPDATE_TASK_ACTIVE_START}.
+   */
   static final String SQL_CREATE_TASK_TABLE =
           "CREATE TABLE " + TABLE_NAME_TASK + " ("
                   + _ID + ID_DECL + COMMA_SEP
-                  + COLUMN_NAME_TITLE + TEXT_TYPE + " );";
+                  + COLUMN_NAME_TITLE + TEXT_TYPE + COMMA_SEP
+                  + COLUMN_NAME_TOTAL_MILLIS + INT_TYPE + COUNTER_DEFAULT + COMMA_SEP
+                  + COLUMN_NAME_RECORD_COUNT + INT_TYPE + COUNTER_DEFAULT + COMMA_SEP
+                  + COLUMN_NAME_MIN_START + INT_TYPE + COMMA_SEP
+                  + COLUMN_NAME_MAX_START + INT_TYPE + COMMA_SEP
+                  + COLUMN_NAME_ACTIVE_START + INT_TYPE + " );";
+
+  static final String[] SQL_ADD_TASK_STATISTICS_COLUMNS = {
+      "ALTER TABLE " + TABLE_NAME_TASK + " ADD COLUMN "
+          + COLUMN_NAME_TOTAL_MILLIS + INT_TYPE + COUNTER_DEFAULT + ";",
+      "ALTER TABLE " + TABLE_NAME_TASK + " ADD COLUMN "
+          + COLUMN_NAME_RECORD_COUNT + INT_TYPE + COUNTER_DEFAULT + ";",
+      "ALTER TABLE " + TABLE_NAME_TASK + " ADD COLUMN " + COLUMN_NAME_MIN_START + INT_TYPE + ";",
+      "ALTER TABLE " + TABLE_NAME_TASK + " ADD COLUMN " + COLUMN_NAME_MAX_START + INT_TYPE + ";"
+  };
+
+  static final String SQL_ADD_TASK_ACTIVE_START_COLUMN =
+          "ALTER TABLE " + TABLE_NAME_TASK + " ADD COLUMN " + COLUMN_NAME_ACTIVE_START + INT_TYPE
+                  + ";";
+
+  /**
+   * Mark a task as running since the bound start. Running records aren't stored in the record
+   * table, so this is what lets a task which was running when the app was closed continue
+   * afterwards.
+   */
+  static final String SQL_UPDATE_TASK_ACTIVE_START =
+          "UPDATE " + TABLE_NAME_TASK + " SET " + COLUMN_NAME_ACTIVE_START + " = ?"
+                  + " WHERE " + _ID + " = ?;";
 
+  /**
+   * Unmark a task once the record started at the bound start has been stored. The start has to
+   * match, so a task which has been started again meanwhile keeps its new mark.
+   */
+  static final String SQL_CLEAR_TASK_ACTIVE_START =
+          "UPDATE " + TABLE_NAME_TASK + " SET " + COLUMN_NAME_ACTIVE_START + " = NULL"
+                  + " WHERE " + _ID + " = ? AND " + COLUMN_NAME_ACTIVE_START + " = ?;";
+
+  private static final String RECORDS_OF_TASK = " FROM " + TABLE_NAME_RECORD + " r"
+          + " WHERE r." + COLUMN_NAME_TASKID + " = " + TABLE_NAME_TASK + "." + _ID;
+
+  /**
+   * Recomputes the cached statistics of all tasks from the record table.
+   */
+  static final String SQL_UPDATE_ALL_TASK_STATISTICS =
+          "UPDATE " + TABLE_NAME_TASK + " SET "
+                  + COLUMN_NAME_TOTAL_MILLIS + " = IFNULL((SELECT SUM(r." + COLUMN_NAME_END
+                  + " - r." + COLUMN_NAME_START + ")" + RECORDS_OF_TASK + "), 0)" + COMMA_SEP
+                  + " " + COLUMN_NAME_RECORD_COUNT + " = (SELECT COUNT(*)" + RECORDS_OF_TASK + ")"
+                  + COMMA_SEP
+                  + " " + COLUMN_NAME_MIN_START + " = (SELECT MIN(r." + COLUMN_NAME_START + ")"
+                  + RECORDS_OF_TASK + ")" + COMMA_SEP
+                  + " " + COLUMN_NAME_MAX_START + " = (SELECT MAX(r." + COLUMN_NAME_START + ")"
+                  + RECORDS_OF_TASK + ");";
+
+  /**
+   * Adds a single record to the cached statistics of a task. Arguments: the record's duration
+   * (0 if it lacks start or end), its start four times (may be NULL) and the task id.
+   * <code>MIN()</code>/<code>MAX()</code> with a NULL argument yield NULL, COALESCE falls back to
+   * whichever value is present.
+   */
+  static final String SQL_UPDATE_TASK_STATISTICS =
+          "UPDATE " + TABLE_NAME_TASK + " SET "
+                  + COLUMN_NAME_TOTAL_MILLIS + " = " + COLUMN_NAME_TOTAL_MILLIS + " + ?" + COMMA_SEP
+                  + " " + COLUMN_NAME_RECORD_COUNT + " = " + COLUMN_NAME_RECORD_COUNT + " + 1"
+                  + COMMA_SEP
+                  + " " + COLUMN_NAME_MIN_START + " = COALESCE(MIN(" + COLUMN_NAME_MIN_START
+                  + ", ?), " + COLUMN_NAME_MIN_START + ", ?)" + COMMA_SEP
+                  + " " + COLUMN_NAME_MAX_START + " = COALESCE(MAX(" + COLUMN_NAME_MAX_START
+                  + ", ?), " + COLUMN_NAME_MAX_START + ", ?)"
+                  + " WHERE " + _ID + " = ?;";
+
+  /**
+   * Records keep start and end as epoch milliseconds (since database version 2).
+   */
   static final String SQL_CREATE_RECORD_TABLE =
           "CREATE TABLE " + TABLE_NAME_RECORD + " ("
                   + _ID + ID_DECL + COMMA_SEP
                   + COLUMN_NAME_TASKID + INT_TYPE + COMMA_SEP
-                  + COLUMN_NAME_START + NUMERIC_TYPE + COMMA_SEP
-                  + COLUMN_NAME_END + NUMERIC_TYPE + COMMA_SEP
+                  + COLUMN_NAME_START + INT_TYPE + COMMA_SEP
+                  + COLUMN_NAME_END + INT_TYPE + COMMA_SEP
+                  + FOREIGN_KEY_START + COLUMN_NAME_TASKID + FOREIGN_KEY_REFERENCE
+                  + TABLE_NAME_TASK + FOREIGN_KEY_REFERENCE_START + _ID
+                  + FOREIGN_KEY_REFERENCE_END
+                  + " );";
+
+  /**
+   * Version 1 stored timestamps as "yyyy-MM-dd'T'HH:mm:ss" strings. During the upgrade the old
+   * table is moved aside under this name, converted row by row and dropped afterwards.
+   */
+  static final String TABLE_NAME_RECORD_V1 = "record_v1";
+
+  static final String SQL_RENAME_RECORD_TABLE_V1 =
+          "ALTER TABLE " + TABLE_NAME_RECORD + " RENAME TO " + TABLE_NAME_RECORD_V1 + ";";
+
+  static final String SQL_DROP_RECORD_TABLE_V1 = "DROP TABLE " + TABLE_NAME_RECORD_V1 + ";";
+
+  static final String SQL_INSERT_RECORD_WITH_ID =
+          "INSERT INTO " + TABLE_NAME_RECORD + " ("
+                  + _ID + COMMA_SEP
+                  + COLUMN_NAME_TASKID + COMMA_SEP
+                  + COLUMN_NAME_START + COMMA_SEP
+                  + COLUMN_NAME_END
+                  + ") VALUES (?, ?, ?, ?);";
+
+  /**
+   * Rollup of the record table: the time recorded per task and local day (see
+   * {@link de.hdmstuttgart.zeitfresser.model.EpochDays}), since database version 4. A record
+   * crossing midnight contributes to every day it covers, but is counted on its start day only.
+   */
+  static final String SQL_CREATE_DAY_TOTALS_TABLE =
+          "CREATE TABLE " + TABLE_NAME_DAY_TOTALS + " ("
+                  + COLUMN_NAME_TASKID + INT_TYPE + " NOT NULL" + COMMA_SEP
+                  + COLUMN_NAME_EPOCH_DAY + INT_TYPE + " NOT NULL" + COMMA_SEP
+                  + COLUMN_NAME_TOTAL_MILLIS + INT_TYPE + " NOT NULL" + COMMA_SEP
+                  + COLUMN_NAME_RECORD_COUNT + INT_TYPE + " NOT NULL" + COMMA_SEP
+                  + "PRIMARY KEY (" + COLUMN_NAME_TASKID + COMMA_SEP + COLUMN_NAME_EPOCH_DAY + ")"
+                  + COMMA_SEP
                   + FOREIGN_KEY_START + COLUMN_NAME_TASKID + FOREIGN_KEY_REFERENCE
                   + TABLE_NAME_TASK + FOREIGN_KEY_REFERENCE_START + _ID
                   + FOREIGN_KEY_REFERENCE_END
                   + " );";
+
+  static final String SQL_DELETE_DAY_TOTALS = "DELETE FROM " + TABLE_NAME_DAY_TOTALS + ";";
+
+  /**
+   * The ID of the time zone whose days {@link #TABLE_NAME_DAY_TOTALS} has been built for, in a
+   * single row (since database version 7). The table is empty until the rollup is built first.
+   */
+  static final String SQL_CREATE_DAY_TOTALS_ZONE_TABLE =
+          "CREATE TABLE " + TABLE_NAME_DAY_TOTALS_ZONE + " ("
+                  + COLUMN_NAME_TIME_ZONE + TEXT_TYPE + " NOT NULL );";
+
+  static final String SQL_SELECT_DAY_TOTALS_ZONE =
+          "SELECT " + COLUMN_NAME_TIME_ZONE + " FROM " + TABLE_NAME_DAY_TOTALS_ZONE + ";";
+
+  static final String SQL_DELETE_DAY_TOTALS_ZONE =
+          "DELETE FROM " + TABLE_NAME_DAY_TOTALS_ZONE + ";";
+
+  static final String SQL_INSERT_DAY_TOTALS_ZONE =
+          "INSERT INTO " + TABLE_NAME_DAY_TOTALS_ZONE + " (" + COLUMN_NAME_TIME_ZONE
+                  + ") VALUES (?);";
+
+  /**
+   * There is no UPSERT before SQLite 3.24, so the rollup is updated first and a row is only
+   * inserted if the update didn't match.
+   */
+  static final String SQL_UPDATE_DAY_TOTAL =
+          "UPDATE " + TABLE_NAME_DAY_TOTALS + " SET "
+                  + COLUMN_NAME_TOTAL_MILLIS + " = " + COLUMN_NAME_TOTAL_MILLIS + " + ?" + COMMA_SEP
+                  + " " + COLUMN_NAME_RECORD_COUNT + " = " + COLUMN_NAME_RECORD_COUNT + " + ?"
+                  + " WHERE " + COLUMN_NAME_TASKID + " = ? AND " + COLUMN_NAME_EPOCH_DAY + " = ?;";
+
+  static final String SQL_INSERT_DAY_TOTAL =
+          "INSERT INTO " + TABLE_NAME_DAY_TOTALS + " ("
+                  + COLUMN_NAME_TOTAL_MILLIS + COMMA_SEP
+                  + COLUMN_NAME_RECORD_COUNT + COMMA_SEP
+                  + COLUMN_NAME_TASKID + COMMA_SEP
+                  + COLUMN_NAME_EPOCH_DAY
+                  + ") VALUES (?, ?, ?, ?);";
+
+  static final String SQL_INSERT_RECORD =
+          "INSERT INTO " + TABLE_NAME_RECORD + " ("
+                  + COLUMN_NAME_TASKID + COMMA_SEP
+                  + COLUMN_NAME_START + COMMA_SEP
+                  + COLUMN_NAME_END
+                  + ") VALUES (?, ?, ?);";
+
+  static final String INDEX_NAME_RECORD_TASK_START = "record_task_start";
+
+  /**
+   * Lets lookups of a task's records, optionally restricted to a range of start times, seek
+   * instead of scanning the whole table (since database version 3).
+   */
+  static final String SQL_CREATE_RECORD_TASK_START_INDEX =
+          "CREATE INDEX " + INDEX_NAME_RECORD_TASK_START + " ON " + TABLE_NAME_RECORD + " ("
+                  + COLUMN_NAME_TASKID + COMMA_SEP
+                  + COLUMN_NAME_START + " );";
+
+  /**
+   * Fetches every task together with its records in a single pass. Tasks without records still
+   * show up once with NULL record columns. Append a WHERE clause on the task alias "t" to restrict
+   * the result and finish with {@link #SQL_ORDER_TASKS_WITH_RECORDS}.
+   */
+  static final String SQL_SELECT_TASKS_WITH_RECORDS_FROM =
+          "SELECT t." + _ID + COMMA_SEP
+                  + " t." + COLUMN_NAME_TITLE + COMMA_SEP
+                  + " t." + COLUMN_NAME_ACTIVE_START + COMMA_SEP
+                  + " r." + _ID + " AS " + COLUMN_NAME_RECORD_ID + COMMA_SEP
+                  + " r." + COLUMN_NAME_START + COMMA_SEP
+                  + " r." + COLUMN_NAME_END
+                  + " FROM " + TABLE_NAME_TASK + " t"
+                  + " LEFT JOIN " + TABLE_NAME_RECORD + " r"
+                  + " ON r." + COLUMN_NAME_TASKID + " = t." + _ID;
+
+  /**
+   * Rows are grouped by task and ordered by record start, so the result can be turned into a task
+   * graph while iterating the cursor only once.
+   */
+  static final String SQL_ORDER_TASKS_WITH_RECORDS =
+          " ORDER BY t." + COLUMN_NAME_TITLE + " " + ASC + COMMA_SEP
+                  + " t." + _ID + " " + ASC + COMMA_SEP
+                  + " r." + COLUMN_NAME_START + " " + ASC + ";";
+
+  static final String SQL_SELECT_TASKS_WITH_RECORDS =
+          SQL_SELECT_TASKS_WITH_RECORDS_FROM + SQL_ORDER_TASKS_WITH_RECORDS;
+
+  static final String SQL_WHERE = " WHERE ";
+  static final String SQL_AND = " AND ";
+
+  /**
+   * Task "t" has at least one record starting after the bound argument. Arguments are bound as
+   * strings, which SQLite never converts when comparing them to an expression without column
+   * affinity, so they're cast to compare as numbers whatever the left-hand side is.
+   */
+  static final String SQL_WHERE_TASK_HAS_RECORD_AFTER =
+          "t." + COLUMN_NAME_MAX_START + " > CAST(? AS INTEGER)";
+
+  /**
+   * Task "t" has at least one record starting before the bound argument, cast like in
+   * {@link #SQL_WHERE_TASK_HAS_RECORD_AFTER}.
+   */
+  static final String SQL_WHERE_TASK_HAS_RECORD_BEFORE =
+          "t." + COLUMN_NAME_MIN_START + " < CAST(? AS INTEGER)";
+
+  /**
+   * The records of task "t" add up to more than zero milliseconds. Records lacking a start or an
+   * end count as zero, just like {@code Record.getDuration()} does.
+   */
+  static final String SQL_WHERE_TASK_HAS_DURATION = "t." + COLUMN_NAME_TOTAL_MILLIS + " > 0";
+
+  /**
+   * Reads the cached total of every task, the record table is not involved at all. Has to be
+   * followed by a WHERE clause on the task alias <code>t</code> and
+   * {@link #SQL_ORDER_TASK_SUMMARIES}.
+   */
+  static final String SQL_SELECT_TASK_SUMMARIES_FROM =
+          "SELECT t." + _ID + COMMA_SEP
+                  + " t." + COLUMN_NAME_TITLE + COMMA_SEP
+                  + " t." + COLUMN_NAME_TOTAL_MILLIS + " AS " + COLUMN_NAME_TOTAL
+                  + " FROM " + TABLE_NAME_TASK + " t";
+
+  static final String SQL_ORDER_TASK_SUMMARIES =
+          " ORDER BY t." + COLUMN_NAME_TITLE + " " + ASC + COMMA_SEP
+                  + " t." + _ID + " " + ASC + ";";
+
+  private static final String WINDOW_TOTAL =
+          "IFNULL(d." + COLUMN_NAME_TOTAL + ", 0) + IFNULL(e." + COLUMN_NAME_TOTAL + ", 0)";
+
+  /**
+   * Time spent in a window per task, from whole days in {@link #TABLE_NAME_DAY_TOTALS} plus up to
+   * two partial days clipped from the record table. Arguments: ?1 first whole day, ?2 day after
+   * the last whole day, ?3 and ?4 the first partial window [start, end), ?5 and ?6 the second
+   * one. Empty partial windows have equal start and end and add nothing. Tasks without any time
+   * in the window are left out.
+   */
+  static final String SQL_SELECT_WINDOW_SUMMARIES =
+          "SELECT t." + _ID + COMMA_SEP
+                  + " t." + COLUMN_NAME_TITLE + COMMA_SEP
+                  + " " + WINDOW_TOTAL + " AS " + COLUMN_NAME_TOTAL
+                  + " FROM " + TABLE_NAME_TASK + " t"
+                  + " LEFT JOIN (SELECT " + COLUMN_NAME_TASKID + COMMA_SEP
+                  + " SUM(" + COLUMN_NAME_TOTAL_MILLIS + ") AS " + COLUMN_NAME_TOTAL
+                  + " FROM " + TABLE_NAME_DAY_TOTALS
+                  + " WHERE " + COLUMN_NAME_EPOCH_DAY + " >= ?1"
+                  + " AND " + COLUMN_NAME_EPOCH_DAY + " < ?2"
+                  + " GROUP BY " + COLUMN_NAME_TASKID + ") d"
+                  + " ON d." + COLUMN_NAME_TASKID + " = t." + _ID
+                  + " LEFT JOIN (SELECT " + COLUMN_NAME_TASKID + COMMA_SEP
+                  + " SUM(" + clippedDuration("?3", "?4") + " + " + clippedDuration("?5", "?6")
+                  + ") AS " + COLUMN_NAME_TOTAL
+                  + " FROM " + TABLE_NAME_RECORD
+                  + " WHERE (" + COLUMN_NAME_START + " < ?4 AND " + COLUMN_NAME_END + " > ?3)"
+                  + " OR (" + COLUMN_NAME_START + " < ?6 AND " + COLUMN_NAME_END + " > ?5)"
+                  + " GROUP BY " + COLUMN_NAME_TASKID + ") e"
+                  + " ON e." + COLUMN_NAME_TASKID + " = t." + _ID
+                  + " WHERE " + WINDOW_TOTAL + " > 0"
+                  + SQL_ORDER_TASK_SUMMARIES;
+
+  /**
+   * The part of a record inside the window [start, end), zero if it lies outside. Arguments are
+   * bound as strings, so they're cast to take part in the arithmetic as numbers.
+   */
+  private static String clippedDuration(String start, String end) {
+    return "MAX(0, MIN(" + COLUMN_NAME_END + ", CAST(" + end + " AS INTEGER))"
+            + " - MAX(" + COLUMN_NAME_START + ", CAST(" + start + " AS INTEGER)))";
+  }
 }
@@ -0,0 +1,147 @@
+package de.hdmstuttgart.zeitfresser.db;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A set of SQLite settings applied by {@link DbManager#onConfigure} whenever a connection is
+ * opened. Settings left at their default value are not touched, so {@link #defaults()} keeps
+ * whatever SQLite and Android use out of the box.
+ */
+public final class DbTuningProfile {
+
+  /**
+   * Values of <code>PRAGMA synchronous</code>.
+   */
+  public enum Synchronous {
+    DEFAULT, OFF, NORMAL, FULL
+  }
+
+  /**
+   * Values of <code>PRAGMA temp_store</code>.
+   */
+  public enum TempStore {
+    DEFAULT, FILE, MEMORY
+  }
+
+  public static final int DEFAULT_CACHE_SIZE = 0;
+  public static final long DEFAULT_MMAP_SIZE = -1;
+
+  private final boolean writeAheadLogging;
+  private final Synchronous synchronous;
+  private final int cacheSizeKib;
+  private final long mmapSizeBytes;
+  private final TempStore tempStore;
+
+  /**
+   * Create a profile (factory method).
+   *
+   * @param writeAheadLogging Use <code>journal_mode=WAL</code> instead of a rollback journal.
+   * @param synchronous       The synchronous level.
+   * @param cacheSizeKib      Page cache size in KiB, {@link #DEFAULT_CACHE_SIZE} to keep it.
+   * @param mmapSizeBytes     Memory mapped I/O limit, {@link #DEFAULT_MMAP_SIZE} to keep it.
+   * @param tempStore         Where temporary tables and indices are kept.
+   * @return The new profile.
+   */
+  public static DbTuningProfile of(boolean writeAheadLogging, Synchronous synchronous,
+                                   int cacheSizeKib, long mmapSizeBytes, TempStore tempStore) {
+    if (synchronous == null) {
+      throw new IllegalArgumentException("Argument 'synchronous' must not be null!");
+    }
+    if (tempStore == null) {
+      throw new IllegalArgumentException("Argument 'tempStore' must not be null!");
+    }
+
+    return new DbTuningProfile(writeAheadLogging, synchronous, cacheSizeKib, mmapSizeBytes,
+        tempStore);
+  }
+
+  /**
+   * Keeps all SQLite defaults: rollback journal, full synchronous, default cache, no mmap.
+   */
+  public static DbTuningProfile defaults() {
+    return of(false, Synchronous.DEFAULT, DEFAULT_CACHE_SIZE, DEFAULT_MMAP_SIZE,
+        TempStore.DEFAULT);
+  }
+
+  /**
+   * For the evaluation workload: WAL lets readers run concurrently with the record writer and
+   * makes commits cheap, a larger cache and memory mapped I/O speed up the aggregate queries.
+   * With WAL, <code>synchronous=NORMAL</code> still survives app crashes, only the most recent
+   * commits may be lost on power failure.
+   */
+  public static DbTuningProfile readOptimized() {
+    return of(true, Synchronous.NORMAL, 8 * 1024, 64L * 1024 * 1024, TempStore.MEMORY);
+  }
+
+  /**
+   * Every commit is synced to disk before it returns; nothing is lost even on power failure.
+   */
+  public static DbTuningProfile durable() {
+    return of(false, Synchronous.FULL, DEFAULT_CACHE_SIZE, 0, TempStore.DEFAULT);
+  }
+
+  private DbTuningProfile(boolean writeAheadLogging, Synchronous synchronous, int cacheSizeKib,
+                          long mmapSizeBytes, TempStore tempStore) {
+    this.writeAheadLogging = writeAheadLogging;
+    this.synchronous = synchronous;
+    this.cacheSizeKib = cacheSizeKib;
+    this.mmapSizeBytes = mmapSizeBytes;
+    this.tempStore = tempStore;
+  }
+
+  public boolean isWriteAheadLogging() {
+    return writeAheadLogging;
+  }
+
+  public Synchronous getSynchronous() {
+    return synchronous;
+  }
+
+  public int getCacheSizeKib() {
+    return cacheSizeKib;
+  }
+
+  public long getMmapSizeBytes() {
+    return mmapSizeBytes;
+  }
+
+  public TempStore getTempStore() {
+    return tempStore;
+  }
+
+  /**
+   * Returns the PRAGMA statements for all settings which differ from the defaults. The journal
+   * mode is not part of them, it is switched with
+   * {@link android.database.sqlite.SQLiteDatabase#enableWriteAheadLogging()} so that Android
+   * can manage its connection pool accordingly.
+   *
+   * @return A list of PRAGMA statements, possibly empty.
+   */
+  public List<String> getPragmas() {
+    List<String> pragmas = new ArrayList<>(4);
+
+    if (synchronous != Synchronous.DEFAULT) {
+      pragmas.add("PRAGMA synchronous = " + synchronous.name());
+    }
+    if (cacheSizeKib != DEFAULT_CACHE_SIZE) {
+      // negative values are interpreted as KiB instead of pages
+      pragmas.add("PRAGMA cache_size = " + (-cacheSizeKib));
+    }
+    if (mmapSizeBytes != DEFAULT_MMAP_SIZE) {
+      pragmas.add("PRAGMA mmap_size = " + mmapSizeBytes);
+    }
+    if (tempStore != TempStore.DEFAULT) {
+      pragmas.add("PRAGMA temp_store = " + tempStore.name());
+    }
+
+    return Collections.unmodifiableList(pragmas);
+  }
+
+  @Override
+  public String toString() {
+    return "wal=" + writeAheadLogging + " synchronous=" + synchronous + " cache="
+        + cacheSizeKib + "KiB mmap=" + mmapSizeBytes + " temp_store=" + tempStore;
+  }
+}
@@ -0,0 +1,336 @@
+package de.hdmstuttgart.zeitfresser.db;
+
+import android.content.Context;
+import android.util.Log;
+
+import de.hdmstuttgart.zeitfresser.model.Record;
+import de.hdmstuttgart.zeitfresser.model.Task;
+import de.hdmstuttgart.zeitfresser.model.TaskEvent;
+import de.hdmstuttgart.zeitfresser.model.TaskEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists stopped records on a background thread. Records are collected and written with
+ * {@link DbCalls#persistRecords(Context, List, List)}, i.e. in a single transaction, as soon as
+ * either {@code batchSize} records are pending or {@code flushIntervalMillis} have passed since
+ * the first pending record was queued. A single writer thread keeps records in enqueue order.
+ * Started tasks are queued as well and marked as running in the same transaction, see
+ * {@link DbCalls#persistRecords(Context, List, List, Map)}.
+ * <br/>
+ * Callers which need the records on disk (before reading from the database or before the app
+ * may be killed) have to call {@link #flush()}. If a write fails, its records and marks are put
+ * back in front of the queue and written again after {@code flushIntervalMillis}; a flush
+ * reports the failure by throwing.
+ */
+public class RecordWriteQueue {
+
+  public static final int DEFAULT_BATCH_SIZE = 32;
+  public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+  private static final String TAG = "RecordWriteQueue";
+
+  private final Context context;
+  private final DbCalls dbCalls;
+  private final int batchSize;
+  private final long flushIntervalMillis;
+
+  private final Object lock = new Object();
+  private List<Record> pendingRecords = new ArrayList<>();
+  private List<Task> pendingTasks = new ArrayList<>();
+  private Map<Task, Long> pendingActiveStarts = new LinkedHashMap<>();
+  private ScheduledExecutorService executor;
+  private ScheduledFuture<?> scheduledWrite;
+  private boolean writeSubmitted = false;
+  private volatile TaskEventListener listener;
+
+  private volatile long lastFlushLatencyMillis = 0;
+  private volatile long maxFlushLatencyMillis = 0;
+  private volatile long flushCount = 0;
+
+  private final Runnable writeTask = new Runnable() {
+    @Override
+    public void run() {
+      writePending();
+    }
+  };
+
+  /**
+   * Create a queue writing through the given {@link DbCalls}.
+   *
+   * @param context             The context passed on to {@link DbCalls}.
+   * @param dbCalls             The database access used for writing.
+   * @param batchSize           Number of pending records which triggers a write.
+   * @param flushIntervalMillis Maximum time a record stays in the queue before it is written.
+   */
+  public RecordWriteQueue(Context context, DbCalls dbCalls, int batchSize,
+                          long flushIntervalMillis) {
+    if (dbCalls == null) {
+      throw new IllegalArgumentException("Argument 'dbCalls' must not be null!");
+    }
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Argument 'batchSize' must be positive!");
+    }
+
+    this.context = context;
+    this.dbCalls = dbCalls;
+    this.batchSize = batchSize;
+    this.flushIntervalMillis = flushIntervalMillis;
+  }
+
+  /**
+   * Set a listener which gets a {@link TaskEvent#PERSISTED} event for every record once it has
+   * been committed. It is called on the writer thread.
+   *
+   * @param listener The listener, or null to remove it.
+   */
+  public void setTaskEventListener(TaskEventListener listener) {
+    this.listener = listener;
+  }
+
+  /**
+   * Queue a stopped record for writing.
+   *
+   * @param record The {@link Record} to persist.
+   * @param task   The {@link Task} the record is attached to.
+   */
+  public void enqueue(Record record, Task task) {
+    if (record == null) {
+      throw new IllegalArgumentException("Argument 'record' must not be null!");
+    }
+    if (task == null) {
+      throw new IllegalArgumentException("Argument 'task' must not be null!");
+    }
+
+    synchronized (lock) {
+      pendingRecords.add(record);
+      pendingTasks.add(task);
+      scheduleWrite();
+    }
+  }
+
+  /**
+   * Queue marking a started task as running.
+   *
+   * @param task  The {@link Task} which has been started.
+   * @param start The start of its active record in epoch milliseconds.
+   */
+  public void enqueueStart(Task task, long start) {
+    if (task == null) {
+      throw new IllegalArgumentException("Argument 'task' must not be null!");
+    }
+
+    synchronized (lock) {
+      pendingActiveStarts.put(task, start);
+      scheduleWrite();
+    }
+  }
+
+  /**
+   * Queue a stopped record together with marking the next task as running. Both are always
+   * written in the same transaction.
+   *
+   * @param record The {@link Record} which has been stopped.
+   * @param from   The {@link Task} the stopped record is attached to.
+   * @param to     The {@link Task} which has been started.
+   * @param start  The start of its active record in epoch milliseconds.
+   */
+  public void enqueueSwitch(Record record, Task from, Task to, long start) {
+    if (to == null) {
+      throw new IllegalArgumentException("Argument 'to' must not be null!");
+    }
+
+    synchronized (lock) {
+      enqueue(record, from);
+      pendingActiveStarts.put(to, start);
+    }
+  }
+
+  /**
+   * Write all pending records and block until they have been committed, including a write
+   * which may already be in progress. Throws an {@link IllegalStateException} if the write
+   * fails, the records stay queued then.
+   */
+  public void flush() {
+    Future<?> write;
+    synchronized (lock) {
+      if (executor == null) {
+        return;
+      }
+      write = executor.submit(writeTask);
+    }
+
+    try {
+      write.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException ex) {
+      throw new IllegalStateException("Unable to flush pending records!", ex.getCause());
+    }
+  }
+
+  /**
+   * Flush all pending records and stop the writer thread. The queue may still be used
+   * afterwards, a new writer thread is started on demand.
+   */
+  public void close() {
+    try {
+      flush();
+    } finally {
+      synchronized (lock) {
+        if (executor != null) {
+          executor.shutdown();
+          executor = null;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the number of records waiting to be written.
+   */
+  public int getQueueDepth() {
+    synchronized (lock) {
+      return pendingRecords.size();
+    }
+  }
+
+  /**
+   * Returns the duration of the most recent write transaction in milliseconds.
+   */
+  public long getLastFlushLatencyMillis() {
+    return lastFlushLatencyMillis;
+  }
+
+  /**
+   * Returns the duration of the slowest write transaction so far in milliseconds.
+   */
+  public long getMaxFlushLatencyMillis() {
+    return maxFlushLatencyMillis;
+  }
+
+  /**
+   * Returns the number of write transactions so far.
+   */
+  public long getFlushCount() {
+    return flushCount;
+  }
+
+  /**
+   * Callers hold the lock.
+   */
+  private void scheduleWrite() {
+    if (pendingRecords.size() >= batchSize) {
+      if (!writeSubmitted) {
+        writeSubmitted = true;
+        // submitted rather than executed, a failing write must not kill the writer thread
+        getExecutor().submit(writeTask);
+      }
+    } else if (scheduledWrite == null) {
+      scheduledWrite = getExecutor().schedule(writeTask, flushIntervalMillis,
+          TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private ScheduledExecutorService getExecutor() {
+    if (executor == null) {
+      executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable, TAG);
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+    }
+    return executor;
+  }
+
+  /**
+   * Runs on the writer thread only.
+   */
+  private void writePending() {
+    List<Record> records;
+    List<Task> tasks;
+    Map<Task, Long> activeStarts;
+
+    synchronized (lock) {
+      if (scheduledWrite != null) {
+        scheduledWrite.cancel(false);
+        scheduledWrite = null;
+      }
+      writeSubmitted = false;
+
+      if (pendingRecords.isEmpty() && pendingActiveStarts.isEmpty()) {
+        return;
+      }
+      records = pendingRecords;
+      tasks = pendingTasks;
+      activeStarts = pendingActiveStarts;
+      pendingRecords = new ArrayList<>();
+      pendingTasks = new ArrayList<>();
+      pendingActiveStarts = new LinkedHashMap<>();
+    }
+
+    long start = System.nanoTime();
+    try {
+      dbCalls.persistRecords(context, records, tasks, activeStarts);
+    } catch (RuntimeException ex) {
+      Log.e(TAG, "Unable to persist " + records.size() + " records, retrying", ex);
+      requeue(records, tasks, activeStarts);
+      throw ex;
+    } finally {
+      long latency = (System.nanoTime() - start) / 1000000L;
+      lastFlushLatencyMillis = latency;
+      if (latency > maxFlushLatencyMillis) {
+        maxFlushLatencyMillis = latency;
+      }
+      flushCount++;
+    }
+
+    TaskEventListener currentListener = listener;
+    if (currentListener != null) {
+      for (int i = 0; i < records.size(); i++) {
+        currentListener.onTaskEvent(TaskEvent.PERSISTED, tasks.get(i), records.get(i));
+      }
+    }
+  }
+
+  /**
+   * Put the contents of a failed write back in front of the queue, so they are written before
+   * anything queued meanwhile, and schedule another attempt. Marks queued meanwhile are newer
+   * and win. Runs on the writer thread only.
+   */
+  private void requeue(List<Record> records, List<Task> tasks, Map<Task, Long> activeStarts) {
+    synchronized (lock) {
+      List<Record> newRecords = new ArrayList<>(records.size() + pendingRecords.size());
+      newRecords.addAll(records);
+      newRecords.addAll(pendingRecords);
+      List<Task> newTasks = new ArrayList<>(tasks.size() + pendingTasks.size());
+      newTasks.addAll(tasks);
+      newTasks.addAll(pendingTasks);
+      Map<Task, Long> newActiveStarts = new LinkedHashMap<>(activeStarts);
+      newActiveStarts.putAll(pendingActiveStarts);
+
+      pendingRecords = newRecords;
+      pendingTasks = newTasks;
+      pendingActiveStarts = newActiveStarts;
+
+      // retry after the interval even if the batch is full, so a broken database isn't hammered;
+      // a closed queue retries with the next enqueue or flush instead
+      if (executor != null && scheduledWrite == null) {
+        scheduledWrite = executor.schedule(writeTask, flushIntervalMillis,
+            TimeUnit.MILLISECONDS);
+      }
+    }
+  }
+}
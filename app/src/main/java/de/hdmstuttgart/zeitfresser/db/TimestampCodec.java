@@ -0,0 +1,163 @@
+package de.hdmstuttgart.zeitfresser.db;
+
+import android.database.CharArrayBuffer;
+
+import java.util.TimeZone;
+
+/**
+ * Parses and formats timestamps in the "yyyy-MM-dd'T'HH:mm:ss" local time format used by
+ * database version 1. Unlike {@link java.text.SimpleDateFormat} it keeps no state, so it is
+ * thread-safe, and it works on character arrays directly: parsing from a
+ * {@link CharArrayBuffer} filled by {@link android.database.Cursor#copyStringToBuffer} and
+ * formatting into a caller supplied array don't allocate anything.
+ * <br/>
+ * Only years 0 to 9999 are supported. Dates are computed in the proleptic Gregorian calendar,
+ * so dates before the Gregorian cutover in 1582 differ from {@code SimpleDateFormat}.
+ */
+public final class TimestampCodec {
+
+  /**
+   * Number of characters of a formatted timestamp.
+   */
+  public static final int LENGTH = 19;
+
+  /**
+   * Returned by the parse methods if the input is not a valid timestamp.
+   */
+  public static final long INVALID = Long.MIN_VALUE;
+
+  private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+
+  private TimestampCodec() {
+  }
+
+  /**
+   * Parse the characters copied into a buffer, see {@link #parse(char[], int, int, TimeZone)}.
+   *
+   * @param buffer   The buffer holding the timestamp.
+   * @param timeZone The time zone the timestamp is given in.
+   * @return The timestamp in epoch milliseconds or {@link #INVALID}.
+   */
+  public static long parse(CharArrayBuffer buffer, TimeZone timeZone) {
+    return parse(buffer.data, 0, buffer.sizeCopied, timeZone);
+  }
+
+  /**
+   * Parse a timestamp. Like {@link java.text.SimpleDateFormat#parse(String,
+   * java.text.ParsePosition)}, characters following the timestamp are ignored.
+   *
+   * @param data     The characters to parse.
+   * @param offset   Index of the first character.
+   * @param length   Number of characters available.
+   * @param timeZone The time zone the timestamp is given in.
+   * @return The timestamp in epoch milliseconds or {@link #INVALID}.
+   */
+  public static long parse(char[] data, int offset, int length, TimeZone timeZone) {
+    if (length < LENGTH || data[offset + 4] != '-' || data[offset + 7] != '-'
+        || data[offset + 10] != 'T' || data[offset + 13] != ':' || data[offset + 16] != ':') {
+      return INVALID;
+    }
+
+    int year = digits(data, offset, 4);
+    int month = digits(data, offset + 5, 2);
+    int day = digits(data, offset + 8, 2);
+    int hour = digits(data, offset + 11, 2);
+    int minute = digits(data, offset + 14, 2);
+    int second = digits(data, offset + 17, 2);
+
+    if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31 || hour < 0 || hour > 23
+        || minute < 0 || minute > 59 || second < 0 || second > 59) {
+      return INVALID;
+    }
+
+    long local = daysFromCivil(year, month, day) * MILLIS_PER_DAY
+        + ((hour * 60 + minute) * 60 + second) * 1000L;
+
+    // the offset depends on the instant we're looking for, guess and correct once
+    int offsetGuess = timeZone.getOffset(local - timeZone.getRawOffset());
+    long millis = local - offsetGuess;
+    int offsetActual = timeZone.getOffset(millis);
+    if (offsetActual != offsetGuess) {
+      millis = local - offsetActual;
+    }
+    return millis;
+  }
+
+  /**
+   * Format a timestamp into the given array.
+   *
+   * @param millis   The timestamp in epoch milliseconds.
+   * @param timeZone The time zone to format the timestamp in.
+   * @param buffer   The array to write to, needs room for {@link #LENGTH} characters.
+   * @param offset   Index of the first character to write.
+   * @return The index behind the last character written.
+   */
+  public static int format(long millis, TimeZone timeZone, char[] buffer, int offset) {
+    long local = millis + timeZone.getOffset(millis);
+    long days = local / MILLIS_PER_DAY;
+    long millisOfDay = local % MILLIS_PER_DAY;
+    if (millisOfDay < 0) {
+      days--;
+      millisOfDay += MILLIS_PER_DAY;
+    }
+    int secondOfDay = (int) (millisOfDay / 1000);
+
+    // civil date from days since 1970-01-01, proleptic Gregorian calendar
+    long shifted = days + 719468;
+    long era = (shifted >= 0 ? shifted : shifted - 146096) / 146097;
+    int dayOfEra = (int) (shifted - era * 146097);
+    int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    int monthIndex = (5 * dayOfYear + 2) / 153;
+    int day = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+    int month = monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+    int year = (int) (yearOfEra + era * 400) + (month <= 2 ? 1 : 0);
+
+    offset = writeDigits(buffer, offset, year, 4);
+    buffer[offset++] = '-';
+    offset = writeDigits(buffer, offset, month, 2);
+    buffer[offset++] = '-';
+    offset = writeDigits(buffer, offset, day, 2);
+    buffer[offset++] = 'T';
+    offset = writeDigits(buffer, offset, secondOfDay / 3600, 2);
+    buffer[offset++] = ':';
+    offset = writeDigits(buffer, offset, secondOfDay / 60 % 60, 2);
+    buffer[offset++] = ':';
+    return writeDigits(buffer, offset, secondOfDay % 60, 2);
+  }
+
+  /**
+   * Days since 1970-01-01 of a date in the proleptic Gregorian calendar.
+   */
+  private static long daysFromCivil(int year, int month, int day) {
+    int adjustedYear = month <= 2 ? year - 1 : year;
+    int era = (adjustedYear >= 0 ? adjustedYear : adjustedYear - 399) / 400;
+    int yearOfEra = adjustedYear - era * 400;
+    int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+    int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * 146097L + dayOfEra - 719468;
+  }
+
+  /**
+   * Returns the value of <code>count</code> decimal digits or -1 if there is a non-digit.
+   */
+  private static int digits(char[] data, int offset, int count) {
+    int value = 0;
+    for (int i = offset; i < offset + count; i++) {
+      int digit = data[i] - '0';
+      if (digit < 0 || digit > 9) {
+        return -1;
+      }
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
+  private static int writeDigits(char[] buffer, int offset, int value, int count) {
+    for (int i = offset + count - 1; i >= offset; i--) {
+      buffer[i] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+    return offset + count;
+  }
+}
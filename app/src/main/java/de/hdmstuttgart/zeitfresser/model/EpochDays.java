@@ -0,0 +1,50 @@
+package de.hdmstuttgart.zeitfresser.model;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Conversions between epoch milliseconds and local calendar days, counted from 1970-01-01 in
+ * the given time zone. Day boundaries are local midnights, so days around DST changes are 23 or
+ * 25 hours long.
+ */
+public final class EpochDays {
+
+  public static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+
+  private EpochDays() {
+  }
+
+  /**
+   * Returns the local day the given instant falls on.
+   *
+   * @param millis   An instant in epoch milliseconds.
+   * @param timeZone The time zone defining the day boundaries.
+   * @return The number of local days since 1970-01-01.
+   */
+  public static long dayOf(long millis, TimeZone timeZone) {
+    long local = millis + timeZone.getOffset(millis);
+    long day = local / MILLIS_PER_DAY;
+
+    // round towards negative infinity for instants before 1970
+    if (local % MILLIS_PER_DAY < 0) {
+      day--;
+    }
+    return day;
+  }
+
+  /**
+   * Returns the instant at which the given local day starts.
+   *
+   * @param epochDay The number of local days since 1970-01-01.
+   * @param timeZone The time zone defining the day boundaries.
+   * @return The local midnight starting <code>epochDay</code> in epoch milliseconds.
+   */
+  public static long startOf(long epochDay, TimeZone timeZone) {
+    Calendar calendar = Calendar.getInstance(timeZone);
+    calendar.clear();
+    calendar.set(1970, Calendar.JANUARY, 1);
+    calendar.add(Calendar.DAY_OF_MONTH, (int) epochDay);
+    return calendar.getTimeInMillis();
+  }
+}
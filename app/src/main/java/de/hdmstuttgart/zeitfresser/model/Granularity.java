@@ -0,0 +1,122 @@
+package de.hdmstuttgart.zeitfresser.model;
+
+import java.util.TimeZone;
+
+/**
+ * The length of the buckets {@link TimeBuckets} splits a time range into. Buckets start at local
+ * full hours, midnights, Mondays and first days of a month, in the time zone given. They are
+ * computed with epoch arithmetic, days around DST changes are 23 or 25 hours long.
+ */
+public enum Granularity {
+
+  /**
+   * Buckets of one hour each, starting at local full hours.
+   */
+  HOUR {
+    @Override
+    long startOf(long millis, TimeZone timeZone) {
+      long local = millis + timeZone.getOffset(millis);
+      return millis - floorMod(local, MILLIS_PER_HOUR);
+    }
+
+    @Override
+    long next(long bucketStart, TimeZone timeZone) {
+      return bucketStart + MILLIS_PER_HOUR;
+    }
+  },
+
+  /**
+   * Buckets from one local midnight to the next.
+   */
+  DAY {
+    @Override
+    long startOf(long millis, TimeZone timeZone) {
+      return EpochDays.startOf(EpochDays.dayOf(millis, timeZone), timeZone);
+    }
+
+    @Override
+    long next(long bucketStart, TimeZone timeZone) {
+      return EpochDays.startOf(EpochDays.dayOf(bucketStart, timeZone) + 1, timeZone);
+    }
+  },
+
+  /**
+   * Buckets of seven days, starting on Mondays.
+   */
+  WEEK {
+    @Override
+    long startOf(long millis, TimeZone timeZone) {
+      long day = EpochDays.dayOf(millis, timeZone);
+      // 1970-01-01 was a Thursday, three days after a Monday
+      return EpochDays.startOf(day - floorMod(day + 3, 7), timeZone);
+    }
+
+    @Override
+    long next(long bucketStart, TimeZone timeZone) {
+      return EpochDays.startOf(EpochDays.dayOf(bucketStart, timeZone) + 7, timeZone);
+    }
+  },
+
+  /**
+   * Buckets of a calendar month each.
+   */
+  MONTH {
+    @Override
+    long startOf(long millis, TimeZone timeZone) {
+      long day = EpochDays.dayOf(millis, timeZone);
+      return EpochDays.startOf(firstDayOfMonth(day, 0), timeZone);
+    }
+
+    @Override
+    long next(long bucketStart, TimeZone timeZone) {
+      long day = EpochDays.dayOf(bucketStart, timeZone);
+      return EpochDays.startOf(firstDayOfMonth(day, 1), timeZone);
+    }
+  };
+
+  private static final long MILLIS_PER_HOUR = 60 * 60 * 1000L;
+
+  /**
+   * Returns the start of the bucket the given instant falls into.
+   */
+  abstract long startOf(long millis, TimeZone timeZone);
+
+  /**
+   * Returns the start of the bucket following the one starting at <code>bucketStart</code>.
+   */
+  abstract long next(long bucketStart, TimeZone timeZone);
+
+  private static long floorMod(long value, long divisor) {
+    long mod = value % divisor;
+    return mod < 0 ? mod + divisor : mod;
+  }
+
+  /**
+   * Returns the epoch day of the first day of the month <code>months</code> after the one
+   * <code>epochDay</code> falls into, using the days-from-civil algorithm of the proleptic
+   * Gregorian calendar.
+   */
+  private static long firstDayOfMonth(long epochDay, int months) {
+    // civil from days: eras of 400 years starting on March 1st
+    long days = epochDay + 719468;
+    long era = (days >= 0 ? days : days - 146096) / 146097;
+    long dayOfEra = days - era * 146097;
+    long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    long shiftedMonth = (5 * dayOfYear + 2) / 153;
+    long month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+    long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+    long monthIndex = year * 12 + (month - 1) + months;
+    month = floorMod(monthIndex, 12) + 1;
+    year = (monthIndex - (month - 1)) / 12;
+
+    // days from civil, for the first day of that month
+    year -= month <= 2 ? 1 : 0;
+    era = (year >= 0 ? year : year - 399) / 400;
+    yearOfEra = year - era * 400;
+    dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5;
+    dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * 146097 + dayOfEra - 719468;
+  }
+}
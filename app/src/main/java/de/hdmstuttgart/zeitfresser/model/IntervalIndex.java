@@ -0,0 +1,234 @@
+package de.hdmstuttgart.zeitfresser.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An immutable index over the records of one or more tasks which answers "which records were
+ * running at this instant" and "which records overlap this window" in O(log n + k), no matter how
+ * long the records are.
+ * <br/>
+ * The records are sorted by start and stored in parallel arrays which form an implicit balanced
+ * search tree: the middle element of a range is the root of that range. Every node additionally
+ * knows the latest end within its subtree, so queries skip subtrees which end before the window
+ * as well as everything starting after it.
+ * <br/>
+ * Records are half open intervals [start, end). Records which are still running count as open
+ * ended, records which haven't been started are left out. The index is a snapshot: records added
+ * or stopped later aren't reflected, build a new index instead.
+ */
+public final class IntervalIndex {
+
+  private static final long OPEN_END = Long.MAX_VALUE;
+
+  // the indexed tasks, and for every record the position of its task in there
+  private final Task[] tasks;
+  private final int[] taskIndices;
+  private final long[] ids;
+  private final long[] starts;
+  private final long[] ends;
+  private final long[] maxEnds;
+
+  /**
+   * Build an index over the records of a single task.
+   *
+   * @param task The task whose records to index.
+   * @return A new index.
+   */
+  public static IntervalIndex fromTask(Task task) {
+    if (task == null) {
+      throw new IllegalArgumentException("Argument 'task' must not be null!");
+    }
+    return fromTasks(Collections.singletonList(task));
+  }
+
+  /**
+   * Build an index over the records of all given tasks, e.g. all tasks of a
+   * {@link de.hdmstuttgart.zeitfresser.model.manager.TaskManager}.
+   *
+   * @param tasks The tasks whose records to index.
+   * @return A new index.
+   */
+  public static IntervalIndex fromTasks(List<Task> tasks) {
+    if (tasks == null) {
+      throw new IllegalArgumentException("Argument 'tasks' must not be null!");
+    }
+
+    int count = 0;
+    for (Task task : tasks) {
+      count += task.records.size();
+    }
+
+    final int[] recordTasks = new int[count];
+    final long[] ids = new long[count];
+    final long[] starts = new long[count];
+    final long[] ends = new long[count];
+    int size = 0;
+    for (int taskIndex = 0; taskIndex < tasks.size(); taskIndex++) {
+      RecordStore records = tasks.get(taskIndex).records;
+      for (int i = 0; i < records.size(); i++) {
+        long start = records.getStart(i);
+        if (start != Record.UNSET) {
+          recordTasks[size] = taskIndex;
+          ids[size] = records.getId(i);
+          starts[size] = start;
+          ends[size] = records.getEnd(i);
+          size++;
+        }
+      }
+    }
+
+    Integer[] order = new Integer[size];
+    for (int i = 0; i < size; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer first, Integer second) {
+        return Long.compare(starts[first], starts[second]);
+      }
+    });
+
+    IntervalIndex index = new IntervalIndex(tasks.toArray(new Task[tasks.size()]), size);
+    for (int i = 0; i < size; i++) {
+      int from = order[i];
+      index.taskIndices[i] = recordTasks[from];
+      index.ids[i] = ids[from];
+      index.starts[i] = starts[from];
+      index.ends[i] = ends[from] != Record.UNSET ? ends[from] : OPEN_END;
+    }
+    index.computeMaxEnds(0, size);
+    return index;
+  }
+
+  private IntervalIndex(Task[] tasks, int size) {
+    this.tasks = tasks;
+    taskIndices = new int[size];
+    ids = new long[size];
+    starts = new long[size];
+    ends = new long[size];
+    maxEnds = new long[size];
+  }
+
+  /**
+   * Get the number of indexed records.
+   *
+   * @return The number of records.
+   */
+  public int size() {
+    return starts.length;
+  }
+
+  /**
+   * Find the records running at the given instant, i.e. started at or before it and ended after
+   * it.
+   *
+   * @param millis The instant in epoch milliseconds.
+   * @return The records running at <code>millis</code>, ordered by start.
+   */
+  public List<Record> getRecordsAt(long millis) {
+    List<Record> result = new ArrayList<>();
+    collectRecords(0, starts.length, millis, untilAfter(millis), result);
+    return result;
+  }
+
+  /**
+   * Find the records overlapping the window [<code>from</code>, <code>until</code>).
+   *
+   * @param from  Start of the window in epoch milliseconds, inclusive.
+   * @param until End of the window in epoch milliseconds, exclusive.
+   * @return The records overlapping the window, ordered by start.
+   */
+  public List<Record> getRecordsOverlapping(long from, long until) {
+    List<Record> result = new ArrayList<>();
+    collectRecords(0, starts.length, from, until, result);
+    return result;
+  }
+
+  /**
+   * Find the tasks which were running at the given instant.
+   *
+   * @param millis The instant in epoch milliseconds.
+   * @return The tasks running at <code>millis</code>, in the order they have been indexed.
+   */
+  public List<Task> getTasksAt(long millis) {
+    return getTasksOverlapping(millis, untilAfter(millis));
+  }
+
+  /**
+   * Find the tasks which have a record overlapping the window [<code>from</code>,
+   * <code>until</code>).
+   *
+   * @param from  Start of the window in epoch milliseconds, inclusive.
+   * @param until End of the window in epoch milliseconds, exclusive.
+   * @return The tasks with records in the window, in the order they have been indexed.
+   */
+  public List<Task> getTasksOverlapping(long from, long until) {
+    boolean[] found = new boolean[tasks.length];
+    collectTasks(0, starts.length, from, until, found);
+    List<Task> result = new ArrayList<>();
+    for (int i = 0; i < tasks.length; i++) {
+      if (found[i]) {
+        result.add(tasks[i]);
+      }
+    }
+    return result;
+  }
+
+  private static long untilAfter(long millis) {
+    return millis == Long.MAX_VALUE ? millis : millis + 1;
+  }
+
+  private long computeMaxEnds(int low, int high) {
+    if (low >= high) {
+      return Long.MIN_VALUE;
+    }
+    int middle = (low + high) >>> 1;
+    long maxEnd = Math.max(ends[middle],
+        Math.max(computeMaxEnds(low, middle), computeMaxEnds(middle + 1, high)));
+    maxEnds[middle] = maxEnd;
+    return maxEnd;
+  }
+
+  private void collectRecords(int low, int high, long from, long until, List<Record> result) {
+    if (low >= high) {
+      return;
+    }
+    int middle = (low + high) >>> 1;
+    if (maxEnds[middle] <= from) {
+      return;
+    }
+
+    collectRecords(low, middle, from, until, result);
+    if (starts[middle] >= until) {
+      return;
+    }
+    if (ends[middle] > from) {
+      long end = ends[middle] != OPEN_END ? ends[middle] : Record.UNSET;
+      result.add(Record.fromMillis(ids[middle], starts[middle], end));
+    }
+    collectRecords(middle + 1, high, from, until, result);
+  }
+
+  private void collectTasks(int low, int high, long from, long until, boolean[] found) {
+    if (low >= high) {
+      return;
+    }
+    int middle = (low + high) >>> 1;
+    if (maxEnds[middle] <= from) {
+      return;
+    }
+
+    collectTasks(low, middle, from, until, found);
+    if (starts[middle] >= until) {
+      return;
+    }
+    if (ends[middle] > from) {
+      found[taskIndices[middle]] = true;
+    }
+    collectTasks(middle + 1, high, from, until, found);
+  }
+}
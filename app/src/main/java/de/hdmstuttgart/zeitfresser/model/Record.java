@@ -1,24 +1,26 @@
 package de.hdmstuttgart.zeitfresser.model;
 
 import android.database.Cursor;
-import android.util.Log;
 
 import de.hdmstuttgart.zeitfresser.db.DbStatements;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.Observable;
 
 /**
  * This class represents a record, which in turn stands for a single phase of execution of a {@link
  * Task}. As the Task class, it's implementation style also avoids the anemic domain model style.
  */
-public class Record extends Observable implements Cloneable {
+public class Record implements Cloneable {
+
+  /**
+   * Value of {@link #getStartMillis()} and {@link #getEndMillis()} while the record hasn't been
+   * started or stopped yet.
+   */
+  public static final long UNSET = Long.MIN_VALUE;
 
   private long id = 0;
-  private Date start = null;
-  private Date end = null;
+  private long start = UNSET;
+  private long end = UNSET;
 
   /**
    * Create Record (factory method).
@@ -29,6 +31,22 @@ public class Record extends Observable implements Cloneable {
     return new Record();
   }
 
+  /**
+   * Create a record from epoch milliseconds (factory method).
+   *
+   * @param id    The record id.
+   * @param start The start in epoch milliseconds or {@link #UNSET}.
+   * @param end   The end in epoch milliseconds or {@link #UNSET}.
+   * @return The new record object
+   */
+  public static Record fromMillis(long id, long start, long end) {
+    Record record = new Record();
+    record.id = id;
+    record.start = start;
+    record.end = end;
+    return record;
+  }
+
   private Record() {
 
   }
@@ -40,40 +58,66 @@ public class Record extends Observable implements Cloneable {
    * @return A single record.
    */
   public static Record fromCursor(Cursor context) {
-    SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
-    String start = context.getString(context.getColumnIndexOrThrow(DbStatements.COLUMN_NAME_START));
-    String end = context.getString(context.getColumnIndexOrThrow(DbStatements.COLUMN_NAME_END));
-    long id = context.getLong(context.getColumnIndexOrThrow(DbStatements._ID));
-    Record record = new Record();
+    return fromCursor(
+        context,
+        context.getColumnIndexOrThrow(DbStatements._ID),
+        context.getColumnIndexOrThrow(DbStatements.COLUMN_NAME_START),
+        context.getColumnIndexOrThrow(DbStatements.COLUMN_NAME_END)
+    );
+  }
 
-    try {
-      record.start = formatter.parse(start);
-      record.end = formatter.parse(end);
-    } catch (ParseException exception) {
-      // This should not happen
-      Log.e("Record", "Failed to parse date");
-    }
+  /**
+   * Builds a single {@link Record} instance from a cursor whose column indices have already been
+   * resolved by the caller.
+   *
+   * @param cursor     The cursor positioned on the record row.
+   * @param idIndex    Index of the record id column.
+   * @param startIndex Index of the start column.
+   * @param endIndex   Index of the end column.
+   * @return A single record.
+   */
+  public static Record fromCursor(Cursor cursor, int idIndex, int startIndex, int endIndex) {
+    return fromMillis(
+        cursor.getLong(idIndex),
+        cursor.isNull(startIndex) ? UNSET : cursor.getLong(startIndex),
+        cursor.isNull(endIndex) ? UNSET : cursor.getLong(endIndex)
+    );
+  }
 
-    record.id = id;
-    return record;
+  /**
+   * Getter for start in epoch milliseconds.
+   *
+   * @return The start or {@link #UNSET}
+   */
+  public long getStartMillis() {
+    return start;
+  }
+
+  /**
+   * Getter for end in epoch milliseconds.
+   *
+   * @return The end or {@link #UNSET}
+   */
+  public long getEndMillis() {
+    return end;
   }
 
   /**
-   * Getter for start date.
+   * Getter for start date. Allocates a new date on every call, prefer {@link #getStartMillis()}.
    *
    * @return The start date
    */
   public Date getStart() {
-    return start != null ? new Date(start.getTime()) : null;
+    return start != UNSET ? new Date(start) : null;
   }
 
   /**
-   * Getter for end date.
+   * Getter for end date. Allocates a new date on every call, prefer {@link #getEndMillis()}.
    *
    * @return The end date
    */
   public Date getEnd() {
-    return end != null ? new Date(end.getTime()) : null;
+    return end != UNSET ? new Date(end) : null;
   }
 
   /**
@@ -91,21 +135,30 @@ public class Record extends Observable implements Cloneable {
    * @return long
    */
   public long getDuration() {
-    if (end == null || start == null) {
+    if (end == UNSET || start == UNSET) {
       return 0;
     }
 
-    return end.getTime() - start.getTime();
+    return end - start;
   }
 
   /**
    * Start the record.
    */
   public void start() {
-    if (start == null) {
-      start = new Date();
+    start(System.currentTimeMillis());
+  }
+
+  /**
+   * Start the record at the given time.
+   *
+   * @param millis The start in epoch milliseconds.
+   */
+  public void start(long millis) {
+    if (start == UNSET) {
+      start = millis;
     } else {
-      if (end != null) {
+      if (end != UNSET) {
         throw new IllegalStateException("Unable to re-start finished record!");
       } else {
         throw new IllegalStateException("Unable to start already active record!");
@@ -114,16 +167,28 @@ public class Record extends Observable implements Cloneable {
   }
 
   /**
-   * Stop the record.
+   * Stop the record. If the clock has been set back since the start, the record ends at its
+   * start.
    */
   public void stop() {
-    if (start == null) {
+    stop(Math.max(System.currentTimeMillis(), start));
+  }
+
+  /**
+   * Stop the record at the given time, which must not lie before its start.
+   *
+   * @param millis The end in epoch milliseconds.
+   */
+  public void stop(long millis) {
+    if (start == UNSET) {
       throw new IllegalStateException("Unable to stop inactive record!");
     } else {
-      if (end != null) {
+      if (end != UNSET) {
         throw new IllegalStateException("Unable to stop already inactive record!");
+      } else if (millis < start) {
+        throw new IllegalArgumentException("Argument 'millis' must not lie before the start!");
       } else {
-        end = new Date();
+        end = millis;
       }
     }
   }
@@ -143,23 +208,15 @@ public class Record extends Observable implements Cloneable {
 
     Record otherRecord = (Record) other;
 
-    if (this.getStart() != null && !this.getStart().equals(otherRecord.getStart())) {
-      return false;
-    }
-
-    if (otherRecord.getStart() != null && !otherRecord.getStart().equals(this.getStart())) {
-      return false;
-    }
-
-    if (this.getEnd() != null && !this.getEnd().equals(otherRecord.getEnd())) {
+    if (this.start != otherRecord.start) {
       return false;
     }
 
-    if (otherRecord.getEnd() != null && !otherRecord.getEnd().equals(this.getEnd())) {
+    if (this.end != otherRecord.end) {
       return false;
     }
 
-    if (this.getId() != otherRecord.getId()) {
+    if (this.id != otherRecord.id) {
       return false;
     }
 
@@ -172,8 +229,8 @@ public class Record extends Observable implements Cloneable {
     int multiplier = 5;
 
     hashcode = hashcode * multiplier + ((int) (id >>> 32) + (int) (id & 0xFFFFFFFF));
-    hashcode = hashcode * multiplier + ((start == null) ? 0 : start.hashCode());
-    hashcode = hashcode * multiplier + ((end == null) ? 0 : end.hashCode());
+    hashcode = hashcode * multiplier + ((start == UNSET) ? 0 : (int) (start ^ (start >>> 32)));
+    hashcode = hashcode * multiplier + ((end == UNSET) ? 0 : (int) (end ^ (end >>> 32)));
 
     return hashcode;
   }
@@ -0,0 +1,415 @@
+package de.hdmstuttgart.zeitfresser.model;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The records of a single {@link Task}, kept as parallel arrays of ids, starts and ends ordered by
+ * start. Checking for records before or after a point in time is a lookup at either end of the
+ * start column instead of a scan over all records, and summing up durations walks two primitive
+ * arrays.
+ * <br/>
+ * Records are usually added in start order (loaded ordered by start, or started just now), which
+ * is a plain append. Records added out of order are appended as well and the store is sorted once
+ * on the next read, so bulk loads in arbitrary order don't pay for a sorted insert each.
+ * <br/>
+ * Records which haven't been started yet have a start of {@link Record#UNSET} and therefore sort
+ * first. Not thread-safe, just like {@link Task}.
+ * <br/>
+ * For window queries the store keeps prefix sums of the durations in start order. They are
+ * extended lazily, so appending records or stopping the newest one doesn't rebuild them.
+ * <br/>
+ * {@link #copy()} shares the arrays with the copy instead of copying them. Slots the copy can see
+ * are frozen: before writing one of them in place, an array is copied first. Appending writes
+ * past the frozen slots, so only stopping a record which was running when the copy was taken
+ * costs a copy of the ends.
+ */
+final class RecordStore {
+
+  private static final int INITIAL_CAPACITY = 8;
+
+  private long[] ids;
+  private long[] starts;
+  private long[] ends;
+  private int size;
+  private boolean sorted = true;
+  // slots below these are shared with a copy and must not be written in place
+  private int frozen;
+  private int endsFrozen;
+  private long totalDuration;
+
+  // prefixDurations[i] is the total duration and prefixMaxEnds[i] the latest end of the first i
+  // records, valid for i < prefixCount
+  private long[] prefixDurations;
+  private long[] prefixMaxEnds;
+  private int prefixCount = 1;
+  // first record starting before an earlier one has ended, or ending before it starts
+  private int firstOverlap = Integer.MAX_VALUE;
+
+  RecordStore() {
+    this(INITIAL_CAPACITY);
+  }
+
+  RecordStore(int capacity) {
+    ids = new long[capacity];
+    starts = new long[capacity];
+    ends = new long[capacity];
+  }
+
+  /**
+   * Add the current values of a record.
+   *
+   * @param record The record to add.
+   */
+  void add(Record record) {
+    if (size == starts.length) {
+      int capacity = Math.max(INITIAL_CAPACITY, size + (size >> 1));
+      ids = Arrays.copyOf(ids, capacity);
+      starts = Arrays.copyOf(starts, capacity);
+      ends = Arrays.copyOf(ends, capacity);
+      frozen = 0;
+      endsFrozen = 0;
+    } else if (size < frozen || size < endsFrozen) {
+      unshare();
+    }
+
+    long start = record.getStartMillis();
+    if (size > 0 && start < starts[size - 1]) {
+      sorted = false;
+      invalidatePrefix(0);
+    }
+    ids[size] = record.getId();
+    starts[size] = start;
+    ends[size] = record.getEndMillis();
+    size++;
+    totalDuration += record.getDuration();
+  }
+
+  /**
+   * Copy the end of a record which was added while it was still running, i.e. which has no end
+   * in this store yet.
+   *
+   * @param record The record which has been stopped.
+   * @return True if the record has been found, false otherwise.
+   */
+  boolean updateEnd(Record record) {
+    ensureSorted();
+    long start = record.getStartMillis();
+    for (int i = firstIndexFrom(start); i < size && starts[i] == start; i++) {
+      if (ids[i] == record.getId() && ends[i] == Record.UNSET) {
+        if (i < endsFrozen) {
+          ends = Arrays.copyOf(ends, ends.length);
+          endsFrozen = 0;
+        }
+        ends[i] = record.getEndMillis();
+        totalDuration += record.getDuration();
+        invalidatePrefix(i);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Create an independent copy of this store, e.g. to publish a snapshot to other threads. Takes
+   * constant time, the arrays are shared until either store writes to them.
+   *
+   * @return A new store with the same records.
+   */
+  RecordStore copy() {
+    ensureSorted();
+    RecordStore copy = new RecordStore(0);
+    copy.ids = ids;
+    copy.starts = starts;
+    copy.ends = ends;
+    copy.size = size;
+    copy.totalDuration = totalDuration;
+    // the copy must not write anywhere, the slots after its size belong to this store
+    copy.frozen = starts.length;
+    copy.endsFrozen = starts.length;
+    frozen = Math.max(frozen, size);
+    endsFrozen = Math.max(endsFrozen, size);
+    return copy;
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  long getId(int index) {
+    ensureSorted();
+    return ids[index];
+  }
+
+  long getStart(int index) {
+    ensureSorted();
+    return starts[index];
+  }
+
+  long getEnd(int index) {
+    ensureSorted();
+    return ends[index];
+  }
+
+  /**
+   * Create a record from the values at the given index. Allocates, use the column getters when
+   * iterating.
+   *
+   * @param index The index in start order.
+   * @return A new record object.
+   */
+  Record get(int index) {
+    ensureSorted();
+    return Record.fromMillis(ids[index], starts[index], ends[index]);
+  }
+
+  /**
+   * Check if a record with the same id, start and end has been added.
+   *
+   * @param record The record to look for.
+   * @return True if the store contains such a record, false otherwise.
+   */
+  boolean contains(Record record) {
+    ensureSorted();
+    long start = record.getStartMillis();
+    for (int i = firstIndexFrom(start); i < size && starts[i] == start; i++) {
+      if (ids[i] == record.getId() && ends[i] == record.getEndMillis()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Check if any record starts after the given time.
+   */
+  boolean hasStartAfter(long millis) {
+    ensureSorted();
+    return size > 0 && starts[size - 1] > millis;
+  }
+
+  /**
+   * Check if any started record starts before the given time.
+   */
+  boolean hasStartBefore(long millis) {
+    ensureSorted();
+    int first = firstIndexFrom(Record.UNSET + 1);
+    return first < size && starts[first] < millis;
+  }
+
+  /**
+   * The sum of the durations of all records, see {@link Record#getDuration()}. Maintained on
+   * {@link #add(Record)} and {@link #updateEnd(Record)}, so this doesn't iterate.
+   */
+  long getTotalDuration() {
+    return totalDuration;
+  }
+
+  /**
+   * Sum up the time the records spent in the window [<code>from</code>, <code>until</code>).
+   * Records reaching into the window from either side only count with the part inside of it,
+   * records which haven't been stopped don't count at all.
+   * <br/>
+   * The records of a task usually don't overlap, since a task can only run once at a time. Then
+   * this takes two binary searches and the prefix sums, because only the last record starting
+   * before <code>from</code> can reach into the window and only the last one starting inside of
+   * it can reach beyond <code>until</code>. If records do overlap, all of them are clipped one by
+   * one instead.
+   *
+   * @param from  Start of the window in epoch milliseconds, inclusive.
+   * @param until End of the window in epoch milliseconds, exclusive.
+   * @return The time inside the window in milliseconds.
+   */
+  long getDurationBetween(long from, long until) {
+    if (from >= until) {
+      return 0;
+    }
+
+    ensurePrefix();
+    if (firstOverlap != Integer.MAX_VALUE) {
+      return clipEach(from, until);
+    }
+
+    int first = firstIndexFrom(from);
+    int end = firstIndexFrom(until);
+    long total = prefixDurations[end] - prefixDurations[first];
+
+    int last = end - 1;
+    if (last >= first && starts[last] != Record.UNSET && ends[last] != Record.UNSET
+        && ends[last] > until) {
+      total -= ends[last] - until;
+    }
+    int before = first - 1;
+    if (before >= 0 && starts[before] != Record.UNSET && ends[before] != Record.UNSET
+        && ends[before] > from) {
+      total += Math.min(ends[before], until) - from;
+    }
+    return total;
+  }
+
+  private long clipEach(long from, long until) {
+    long total = 0;
+    for (int i = 0; i < size; i++) {
+      if (starts[i] != Record.UNSET && ends[i] != Record.UNSET) {
+        total += Math.max(0, Math.min(ends[i], until) - Math.max(starts[i], from));
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Extend the prefix sums to cover all records. Synchronized since copies handed to other
+   * threads are read concurrently and build their prefix sums on first use.
+   */
+  private synchronized void ensurePrefix() {
+    ensureSorted();
+    if (prefixDurations == null || prefixDurations.length < size + 1) {
+      int capacity = starts.length + 1;
+      if (prefixDurations == null) {
+        prefixDurations = new long[capacity];
+        prefixMaxEnds = new long[capacity];
+        prefixMaxEnds[0] = Long.MIN_VALUE;
+      } else {
+        prefixDurations = Arrays.copyOf(prefixDurations, capacity);
+        prefixMaxEnds = Arrays.copyOf(prefixMaxEnds, capacity);
+      }
+    }
+
+    for (int i = prefixCount - 1; i < size; i++) {
+      long duration = 0;
+      long maxEnd = prefixMaxEnds[i];
+      if (starts[i] != Record.UNSET) {
+        boolean overlaps = starts[i] < maxEnd;
+        if (ends[i] != Record.UNSET) {
+          duration = ends[i] - starts[i];
+          overlaps |= duration < 0;
+          maxEnd = Math.max(maxEnd, ends[i]);
+        }
+        if (overlaps && firstOverlap > i) {
+          firstOverlap = i;
+        }
+      }
+      prefixDurations[i + 1] = prefixDurations[i] + duration;
+      prefixMaxEnds[i + 1] = maxEnd;
+    }
+    prefixCount = size + 1;
+  }
+
+  /**
+   * Drop the prefix sums from the given record on, e.g. because its end has changed.
+   */
+  private void invalidatePrefix(int index) {
+    prefixCount = Math.min(prefixCount, index + 1);
+    if (firstOverlap >= index) {
+      firstOverlap = Integer.MAX_VALUE;
+    }
+  }
+
+  /**
+   * Index of the first record starting at or after the given time, or {@link #size()} if there is
+   * none.
+   */
+  private int firstIndexFrom(long millis) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (starts[middle] < millis) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Stop sharing the arrays with copies.
+   */
+  private void unshare() {
+    ids = Arrays.copyOf(ids, ids.length);
+    starts = Arrays.copyOf(starts, starts.length);
+    ends = Arrays.copyOf(ends, ends.length);
+    frozen = 0;
+    endsFrozen = 0;
+  }
+
+  /**
+   * Restore start order after out-of-order adds. The sort is stable, so records with the same
+   * start keep the order they have been added in.
+   */
+  private void ensureSorted() {
+    if (sorted) {
+      return;
+    }
+
+    Integer[] order = new Integer[size];
+    for (int i = 0; i < size; i++) {
+      order[i] = i;
+    }
+    final long[] unsortedStarts = starts;
+    Arrays.sort(order, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer first, Integer second) {
+        return Long.compare(unsortedStarts[first], unsortedStarts[second]);
+      }
+    });
+
+    long[] sortedIds = new long[ids.length];
+    long[] sortedStarts = new long[starts.length];
+    long[] sortedEnds = new long[ends.length];
+    for (int i = 0; i < size; i++) {
+      int from = order[i];
+      sortedIds[i] = ids[from];
+      sortedStarts[i] = starts[from];
+      sortedEnds[i] = ends[from];
+    }
+    ids = sortedIds;
+    starts = sortedStarts;
+    ends = sortedEnds;
+    frozen = 0;
+    endsFrozen = 0;
+    sorted = true;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (other == this) {
+      return true;
+    }
+    if (!(other instanceof RecordStore)) {
+      return false;
+    }
+
+    RecordStore otherStore = (RecordStore) other;
+    if (size != otherStore.size) {
+      return false;
+    }
+
+    ensureSorted();
+    otherStore.ensureSorted();
+    for (int i = 0; i < size; i++) {
+      if (ids[i] != otherStore.ids[i] || starts[i] != otherStore.starts[i]
+          || ends[i] != otherStore.ends[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    ensureSorted();
+    int hashcode = 1;
+    for (int i = 0; i < size; i++) {
+      hashcode = 31 * hashcode + (int) (ids[i] ^ (ids[i] >>> 32));
+      hashcode = 31 * hashcode + (int) (starts[i] ^ (starts[i] >>> 32));
+      hashcode = 31 * hashcode + (int) (ends[i] ^ (ends[i] >>> 32));
+    }
+    return hashcode;
+  }
+}
@@ -5,9 +5,9 @@ import android.database.Cursor;
 import de.hdmstuttgart.zeitfresser.db.DbStatements;
 
 import java.util.Date;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class represents a task, which can be started, stopped and manages a collection of records.
@@ -15,16 +15,26 @@ import java.util.Objects;
  * publishes business logic instead of entirely disclosing it's internals. This way, we can
  * circumvent the "anemic domain model", as described by
  * <a href="http://www.martinfowler.com/bliki/AnemicDomainModel.html">Martin Fowler</a>.
+ * <br/>
+ * Starting and stopping may happen concurrently, e.g. from the UI and from a background service.
+ * Both are transitions of a single atomic state word: exactly one of several concurrent calls
+ * wins the transition and does the record bookkeeping, the others fail with an
+ * {@link IllegalStateException}. Everything else is not thread-safe.
  */
 public class Task {
 
-  static int instanceCounter = 0;
+  static final AtomicLong instanceCounter = new AtomicLong();
+
+  private static final int IDLE = 0;
+  private static final int STARTING = 1;
+  private static final int ACTIVE = 2;
+  private static final int STOPPING = 3;
 
   protected long id;
-  protected boolean active;
+  protected final AtomicInteger state = new AtomicInteger(IDLE);
   protected String name;
-  protected List<Record> records;
-  protected Record activeRecord;
+  protected RecordStore records;
+  protected volatile Record activeRecord;
 
   /**
    * Builds a single {@link Task} instance from a cursor.
@@ -33,9 +43,25 @@ public class Task {
    * @return A single task.
    */
   public static Task fromCursor(Cursor cursor) {
-    String name = cursor.getString(cursor.getColumnIndexOrThrow(DbStatements.COLUMN_NAME_TITLE));
-    long id = cursor.getLong(cursor.getColumnIndexOrThrow(DbStatements._ID));
-    return new Task(name, id);
+    return fromCursor(
+            cursor,
+            cursor.getColumnIndexOrThrow(DbStatements._ID),
+            cursor.getColumnIndexOrThrow(DbStatements.COLUMN_NAME_TITLE)
+    );
+  }
+
+  /**
+   * Builds a single {@link Task} instance from a cursor whose column indices have already been
+   * resolved. Used by loaders which read many rows and don't want to look up the columns by name
+   * over and over again.
+   *
+   * @param cursor    The cursor to build the task from.
+   * @param idIndex   Index of the task id column.
+   * @param nameIndex Index of the task name column.
+   * @return A single task.
+   */
+  public static Task fromCursor(Cursor cursor, int idIndex, int nameIndex) {
+    return new Task(cursor.getString(nameIndex), cursor.getLong(idIndex));
   }
 
   /**
@@ -45,17 +71,34 @@ public class Task {
    * @return A new task instance.
    */
   public static Task withName(String name) {
-    return new Task(name, ++instanceCounter);
+    return new Task(name, instanceCounter.incrementAndGet());
   }
 
   private Task(String name, long id) {
     Objects.requireNonNull(name);
 
     this.name = name;
-    this.records = new LinkedList<>();
+    this.records = new RecordStore();
     this.id = id;
   }
 
+  /**
+   * Create a detached copy of this task with the same id, name, state and records. Later
+   * changes to either of them don't affect the other one, so the copy can be handed to other
+   * threads as a consistent snapshot. The records aren't copied until either task changes them,
+   * so this takes constant time.
+   *
+   * @return A copy of this task.
+   */
+  public Task snapshot() {
+    Task copy = new Task(name, id);
+    Record record = activeRecord;
+    copy.records = records.copy();
+    copy.activeRecord = record != null ? record.clone() : null;
+    copy.state.set(record != null ? ACTIVE : IDLE);
+    return copy;
+  }
+
   public String getName() {
     return name;
   }
@@ -74,34 +117,38 @@ public class Task {
    * @return True if active, false otherwise.
    */
   public boolean isActive() {
-    return active;
-  }
-
-  protected void setActive() {
-    active = true;
-  }
-
-  protected void setInactive() {
-    active = false;
+    return state.get() == ACTIVE;
   }
 
   /**
    * Start the current task. This includes preparing a new {@link Record} which keeps
    * track of the elapsing time as well as setting the task's current status to "active". Throw
    * an {@link IllegalStateException} when {@code start()} is called on a task which is already
-   * in active state.
+   * in active state, or which is being started or stopped by another thread.
    */
   public void start() {
-    if (isActive()) {
+    start(System.currentTimeMillis());
+  }
+
+  /**
+   * Start the current task at the given time, see {@link #start()}. Used to let one task start
+   * exactly when another one stops, or to resume a task which was running when the app was
+   * closed.
+   *
+   * @param millis The start of the new record in epoch milliseconds.
+   */
+  public void start(long millis) {
+    if (!state.compareAndSet(IDLE, STARTING)) {
       throw new IllegalStateException("Task has already been started!");
-    } else {
-      prepareNewRecord();
-      setActive();
     }
+
+    prepareNewRecord(millis);
+    state.set(ACTIVE);
   }
 
   /**
-   * Add a record to the current task (needed for junit testing).
+   * Add a record to the current task (needed for junit testing). Records are kept ordered by
+   * start, adding them in that order is cheapest.
    */
   public void addRecord(Record record) {
     if (record == null) {
@@ -125,27 +172,77 @@ public class Task {
    * Stop the current task if it is active and has an active record which captures time. If this
    * method is called on an inactive task or on a task which has no active record, an
    * {@link IllegalStateException} is thrown.
+   *
+   * @return The record which has been stopped. When several threads stop a task, only the one
+   *         which actually stopped it gets the record, so it is handed on exactly once.
    */
-  public void stop() {
-    if (isActive() && hasActiveRecord()) {
-      disableCurrentActiveRecord();
-      setInactive();
-    } else {
+  public Record stop() {
+    return stop(System.currentTimeMillis(), true);
+  }
+
+  /**
+   * Stop the current task at the given time, see {@link #stop()}. Unlike the current time, a
+   * given time must not lie before the start of the active record.
+   *
+   * @param millis The end of the active record in epoch milliseconds.
+   * @return The record which has been stopped.
+   */
+  public Record stop(long millis) {
+    return stop(millis, false);
+  }
+
+  private Record stop(long millis, boolean clampToStart) {
+    if (!state.compareAndSet(ACTIVE, STOPPING)) {
       throw new IllegalStateException("Can't stop inactive task.");
     }
+
+    Record record = activeRecord;
+    if (millis < record.getStartMillis()) {
+      if (!clampToStart) {
+        state.set(ACTIVE);
+        throw new IllegalArgumentException("Argument 'millis' must not lie before the start!");
+      }
+      // the clock has been set back since the start, the record ends up empty
+      millis = record.getStartMillis();
+    }
+    disableCurrentActiveRecord(millis);
+    state.set(IDLE);
+    return record;
   }
 
   /**
-   * Returns the overall duration of all records attached to a certain task.
+   * Returns the overall duration of all records attached to a certain task in milliseconds. The
+   * total is kept up to date whenever a record is added or stopped, so this is a constant time
+   * lookup.
    *
    * @return long
    */
+  public long getOverallDurationMillis() {
+    return records.getTotalDuration();
+  }
+
+  /**
+   * Returns the time this task's records spent in the window [<code>from</code>,
+   * <code>until</code>). Records straddling a bound only count with the part inside the window.
+   * Answered from prefix sums over the records, so this takes logarithmic time.
+   *
+   * @param from  Start of the window in epoch milliseconds, inclusive.
+   * @param until End of the window in epoch milliseconds, exclusive.
+   * @return The duration inside the window in milliseconds.
+   */
+  public long getDurationMillisBetween(long from, long until) {
+    return records.getDurationBetween(from, until);
+  }
+
+  /**
+   * Returns the overall duration of all records attached to a certain task.
+   *
+   * @return The duration as a float, which isn't exact beyond 2^24 ms (about 4.6 hours).
+   * @deprecated Use {@link #getOverallDurationMillis()} instead.
+   */
+  @Deprecated
   public float getOverallDuration() {
-    long overallDuration = 0L;
-    for (Record record : records) {
-      overallDuration += record.getDuration();
-    }
-    return overallDuration;
+    return getOverallDurationMillis();
   }
 
   /**
@@ -159,12 +256,7 @@ public class Task {
     if (date == null) {
       throw new IllegalArgumentException("Argument for param 'date' must not be null!");
     } else {
-      for (Record record : records) {
-        if (record.getStart().after(date)) {
-          return true;
-        }
-      }
-      return false;
+      return records.hasStartAfter(date.getTime());
     }
   }
 
@@ -179,16 +271,20 @@ public class Task {
     if (date == null) {
       throw new IllegalArgumentException("Argument for param 'date' must not be null!");
     } else {
-      for (Record record : records) {
-        // start has to be < than date
-        if (record.getStart().before(date)) {
-          return true;
-        }
-      }
-      return false;
+      // start has to be < than date, records which haven't been started don't count
+      return records.hasStartBefore(date.getTime());
     }
   }
 
+  /**
+   * Get the number of records attached to this task.
+   *
+   * @return The number of records.
+   */
+  public int getRecordCount() {
+    return records.size();
+  }
+
   /**
    * Check if task has any records.
    *
@@ -198,11 +294,12 @@ public class Task {
     return !records.isEmpty();
   }
 
-  private void prepareNewRecord() {
+  private void prepareNewRecord(long millis) {
     Record record = Record.create();
     setAsActiveRecord(record);
+    // the store copies the record's values, so add it once it has its start
+    startActiveRecord(millis);
     addRecord(record);
-    startActiveRecord();
   }
 
   private void setAsActiveRecord(Record record) {
@@ -210,17 +307,18 @@ public class Task {
   }
 
 
-  private void startActiveRecord() {
-    this.activeRecord.start();
+  private void startActiveRecord(long millis) {
+    this.activeRecord.start(millis);
   }
 
-  private void disableCurrentActiveRecord() {
-    stopActiveRecord();
+  private void disableCurrentActiveRecord(long millis) {
+    stopActiveRecord(millis);
     setAsActiveRecord(null);
   }
 
-  private void stopActiveRecord() {
-    activeRecord.stop();
+  private void stopActiveRecord(long millis) {
+    activeRecord.stop(millis);
+    records.updateEnd(activeRecord);
   }
 
 
@@ -230,6 +328,12 @@ public class Task {
   }
 
 
+  /**
+   * Tasks are identified by id and name, which don't change over a task's lifetime. Records
+   * aren't compared, so tasks can be used as keys in maps and sets at constant cost and keep
+   * their hashcode while they are being tracked. Use {@link #contentEquals(Task)} to compare the
+   * records as well.
+   */
   @Override
   public boolean equals(Object other) {
     if (other == null) {
@@ -252,13 +356,19 @@ public class Task {
       return false;
     }
 
-    if (!this.records.equals(otherTask.records)) {
-      return false;
-    }
-
     return true;
   }
 
+  /**
+   * Check if another task is equal to this one and has the same records as well.
+   *
+   * @param other The task to compare with.
+   * @return True if id, name and records are equal, false otherwise.
+   */
+  public boolean contentEquals(Task other) {
+    return equals(other) && this.records.equals(other.records);
+  }
+
   @Override
   public int hashCode() {
     int hashcode = 17;
@@ -266,7 +376,6 @@ public class Task {
 
     hashcode = hashcode * multiplier + ((int) (id >>> 32) + (int) (id & 0xFFFFFFFF));
     hashcode = hashcode * multiplier + name.hashCode();
-    hashcode = hashcode * multiplier + records.hashCode();
 
     return hashcode;
   }
@@ -0,0 +1,22 @@
+package de.hdmstuttgart.zeitfresser.model;
+
+/**
+ * The lifecycle events a {@link TaskEventListener} is notified about.
+ */
+public enum TaskEvent {
+
+  /**
+   * A task has been started, the record is its new active record.
+   */
+  STARTED,
+
+  /**
+   * A task has been stopped, the record is the one which has just been stopped.
+   */
+  STOPPED,
+
+  /**
+   * A stopped record has been written to the database.
+   */
+  PERSISTED
+}
@@ -0,0 +1,19 @@
+package de.hdmstuttgart.zeitfresser.model;
+
+/**
+ * Gets notified about {@link TaskEvent}s, see
+ * {@link de.hdmstuttgart.zeitfresser.model.manager.TaskManager#addTaskEventListener(
+ * TaskEventListener)}.
+ */
+public interface TaskEventListener {
+
+  /**
+   * Called for every event. Listeners are called synchronously, on the thread which caused the
+   * event, so they should return quickly.
+   *
+   * @param event  The kind of event.
+   * @param task   The task the event belongs to.
+   * @param record The record which has been started, stopped or persisted.
+   */
+  void onTaskEvent(TaskEvent event, Task task, Record record);
+}
@@ -0,0 +1,127 @@
+package de.hdmstuttgart.zeitfresser.model;
+
+import android.database.Cursor;
+
+/**
+ * A lightweight, immutable view of a {@link Task} which only carries the task's id, its name and
+ * the total amount of time recorded for it. Evaluation views only need these values, so they can
+ * work with summaries instead of full task objects and their {@link Record} lists.
+ */
+public final class TaskSummary {
+
+  /**
+   * The id of a summary which doesn't belong to a single task but sums up several ones, see
+   * {@link de.hdmstuttgart.zeitfresser.model.manager.TaskManager#topTasks(java.util.Date,
+   * java.util.Date, int)}.
+   */
+  public static final long OTHER_ID = -1;
+
+  private final long id;
+  private final String name;
+  private final long totalMillis;
+
+  /**
+   * Create a summary (factory method).
+   *
+   * @param id          The id of the summarized task.
+   * @param name        The name of the summarized task.
+   * @param totalMillis The total duration in milliseconds.
+   * @return The new summary.
+   */
+  public static TaskSummary of(long id, String name, long totalMillis) {
+    return new TaskSummary(id, name, totalMillis);
+  }
+
+  /**
+   * Summarize an already loaded task.
+   *
+   * @param task The task to summarize.
+   * @return A summary holding the task's id, name and overall duration.
+   */
+  public static TaskSummary fromTask(Task task) {
+    if (task == null) {
+      throw new IllegalArgumentException("Argument 'task' must not be null!");
+    }
+
+    return new TaskSummary(task.getId(), task.getName(), task.getOverallDurationMillis());
+  }
+
+  /**
+   * Builds a single {@link TaskSummary} from a cursor whose column indices have already been
+   * resolved by the caller.
+   *
+   * @param cursor     The cursor positioned on the summary row.
+   * @param idIndex    Index of the task id column.
+   * @param nameIndex  Index of the task name column.
+   * @param totalIndex Index of the total duration column.
+   * @return A single summary.
+   */
+  public static TaskSummary fromCursor(Cursor cursor, int idIndex, int nameIndex,
+                                       int totalIndex) {
+    return new TaskSummary(
+        cursor.getLong(idIndex),
+        cursor.getString(nameIndex),
+        cursor.getLong(totalIndex)
+    );
+  }
+
+  private TaskSummary(long id, String name, long totalMillis) {
+    this.id = id;
+    this.name = name;
+    this.totalMillis = totalMillis;
+  }
+
+  /**
+   * Check if this summary sums up several tasks instead of belonging to a single one.
+   *
+   * @return True if the id is {@link #OTHER_ID}, false otherwise.
+   */
+  public boolean isOther() {
+    return id == OTHER_ID;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getTotalMillis() {
+    return totalMillis;
+  }
+
+  @Override
+  public String toString() {
+    return this.id + " " + this.name + " " + this.totalMillis;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (other == this) {
+      return true;
+    }
+    if (!(other instanceof TaskSummary)) {
+      return false;
+    }
+
+    TaskSummary otherSummary = (TaskSummary) other;
+
+    return this.id == otherSummary.id
+        && this.totalMillis == otherSummary.totalMillis
+        && (this.name == null ? otherSummary.name == null : this.name.equals(otherSummary.name));
+  }
+
+  @Override
+  public int hashCode() {
+    int hashcode = 17;
+    int multiplier = 5;
+
+    hashcode = hashcode * multiplier + ((int) (id >>> 32) + (int) (id & 0xFFFFFFFF));
+    hashcode = hashcode * multiplier + ((name == null) ? 0 : name.hashCode());
+    hashcode = hashcode * multiplier + (int) (totalMillis ^ (totalMillis >>> 32));
+
+    return hashcode;
+  }
+}
@@ -0,0 +1,205 @@
+package de.hdmstuttgart.zeitfresser.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * The time recorded per task and time bucket, e.g. per task and day, as a dense matrix of
+ * milliseconds. Records crossing a bucket boundary are split at it, records reaching beyond the
+ * range only count with the part inside of it. Records which haven't been stopped don't count,
+ * just like for {@link Task#getDurationMillisBetween(long, long)}.
+ * <br/>
+ * The buckets cover the range from the start of the bucket <code>from</code> falls into up to
+ * <code>until</code>, so the first and the last bucket may be cut short. The boundaries are
+ * computed once per bucket; the records of each task are then added in a single sweep in start
+ * order, which moves on to the next bucket only when a record starts in it.
+ */
+public final class TimeBuckets {
+
+  private final List<Task> tasks;
+  private final Granularity granularity;
+  // bucket i is [boundaries[i], boundaries[i + 1])
+  private final long[] boundaries;
+  private final long[][] millis;
+
+  /**
+   * Aggregate the records of the given tasks.
+   *
+   * @param tasks       The tasks whose records to aggregate, one row each.
+   * @param from        Start of the range in epoch milliseconds, inclusive.
+   * @param until       End of the range in epoch milliseconds, exclusive.
+   * @param granularity The length of the buckets.
+   * @param timeZone    The time zone defining the bucket boundaries.
+   * @return The durations per task and bucket.
+   */
+  public static TimeBuckets aggregate(List<Task> tasks, long from, long until,
+                                      Granularity granularity, TimeZone timeZone) {
+    if (tasks == null) {
+      throw new IllegalArgumentException("Argument 'tasks' must not be null!");
+    }
+    if (granularity == null) {
+      throw new IllegalArgumentException("Argument 'granularity' must not be null!");
+    }
+    if (timeZone == null) {
+      throw new IllegalArgumentException("Argument 'timeZone' must not be null!");
+    }
+    if (until <= from) {
+      throw new IllegalArgumentException("Argument 'until' must lie after 'from'!");
+    }
+
+    TimeBuckets buckets = new TimeBuckets(new ArrayList<>(tasks), granularity,
+        computeBoundaries(from, until, granularity, timeZone));
+    for (int row = 0; row < tasks.size(); row++) {
+      buckets.sweep(tasks.get(row).records, buckets.millis[row]);
+    }
+    return buckets;
+  }
+
+  private TimeBuckets(List<Task> tasks, Granularity granularity, long[] boundaries) {
+    this.tasks = tasks;
+    this.granularity = granularity;
+    this.boundaries = boundaries;
+    this.millis = new long[tasks.size()][boundaries.length - 1];
+  }
+
+  private static long[] computeBoundaries(long from, long until, Granularity granularity,
+                                          TimeZone timeZone) {
+    List<Long> starts = new ArrayList<>();
+    long start = granularity.startOf(from, timeZone);
+    while (start < until) {
+      starts.add(start);
+      start = granularity.next(start, timeZone);
+    }
+
+    long[] boundaries = new long[starts.size() + 1];
+    for (int i = 0; i < starts.size(); i++) {
+      boundaries[i] = starts.get(i);
+    }
+    // the first bucket starts at from, the last one ends at until
+    boundaries[0] = from;
+    boundaries[starts.size()] = until;
+    return boundaries;
+  }
+
+  private void sweep(RecordStore records, long[] row) {
+    long from = boundaries[0];
+    long until = boundaries[boundaries.length - 1];
+    int bucket = 0;
+
+    for (int i = 0; i < records.size(); i++) {
+      long start = records.getStart(i);
+      long end = records.getEnd(i);
+      if (start >= until) {
+        return;
+      }
+      if (start == Record.UNSET || end == Record.UNSET || end <= from) {
+        continue;
+      }
+
+      long pieceStart = Math.max(start, from);
+      long pieceEnd = Math.min(end, until);
+      // records are sorted by start, so the bucket of the next start is never an earlier one
+      while (boundaries[bucket + 1] <= pieceStart) {
+        bucket++;
+      }
+      for (int split = bucket; pieceStart < pieceEnd; split++) {
+        long bucketEnd = Math.min(boundaries[split + 1], pieceEnd);
+        row[split] += bucketEnd - pieceStart;
+        pieceStart = bucketEnd;
+      }
+    }
+  }
+
+  /**
+   * Get the tasks, in the order of the rows.
+   *
+   * @return The tasks aggregated.
+   */
+  public List<Task> getTasks() {
+    return Collections.unmodifiableList(tasks);
+  }
+
+  public Granularity getGranularity() {
+    return granularity;
+  }
+
+  /**
+   * Get the number of buckets, i.e. columns.
+   *
+   * @return The number of buckets.
+   */
+  public int getBucketCount() {
+    return boundaries.length - 1;
+  }
+
+  /**
+   * Get the start of a bucket.
+   *
+   * @param bucket The index of the bucket.
+   * @return The start of the bucket in epoch milliseconds, inclusive.
+   */
+  public long getBucketStart(int bucket) {
+    checkBucket(bucket);
+    return boundaries[bucket];
+  }
+
+  /**
+   * Get the end of a bucket.
+   *
+   * @param bucket The index of the bucket.
+   * @return The end of the bucket in epoch milliseconds, exclusive.
+   */
+  public long getBucketEnd(int bucket) {
+    checkBucket(bucket);
+    return boundaries[bucket + 1];
+  }
+
+  /**
+   * Get the time a task has spent in a bucket.
+   *
+   * @param row    The index of the task in {@link #getTasks()}.
+   * @param bucket The index of the bucket.
+   * @return The duration in milliseconds.
+   */
+  public long getMillis(int row, int bucket) {
+    checkBucket(bucket);
+    return millis[row][bucket];
+  }
+
+  /**
+   * Get the time all tasks have spent in a bucket.
+   *
+   * @param bucket The index of the bucket.
+   * @return The duration in milliseconds.
+   */
+  public long getBucketTotal(int bucket) {
+    checkBucket(bucket);
+    long total = 0;
+    for (long[] row : millis) {
+      total += row[bucket];
+    }
+    return total;
+  }
+
+  /**
+   * Get the time a task has spent in the whole range.
+   *
+   * @param row The index of the task in {@link #getTasks()}.
+   * @return The duration in milliseconds.
+   */
+  public long getTaskTotal(int row) {
+    long total = 0;
+    for (long value : millis[row]) {
+      total += value;
+    }
+    return total;
+  }
+
+  private void checkBucket(int bucket) {
+    if (bucket < 0 || bucket >= boundaries.length - 1) {
+      throw new IndexOutOfBoundsException("Bucket " + bucket + " doesn't exist!");
+    }
+  }
+}
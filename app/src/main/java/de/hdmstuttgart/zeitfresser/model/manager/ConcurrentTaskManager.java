@@ -0,0 +1,235 @@
+package de.hdmstuttgart.zeitfresser.model.manager;
+
+import de.hdmstuttgart.zeitfresser.model.Record;
+import de.hdmstuttgart.zeitfresser.model.Task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A {@link TaskManager} keeping its tasks in memory which may be used from several threads at
+ * once.
+ * <br/>
+ * Every task has its own lock, so starting and stopping different tasks proceeds in parallel.
+ * Writers only count a version per task; {@link #getTaskList()} hands out snapshot copies of the
+ * tasks, which are taken again only for tasks whose version has changed since. Readers like
+ * {@link #getFilteredTasks(java.util.Date, java.util.Date)} or {@link #asEntryList(List)}
+ * therefore work on tasks nobody changes anymore. Taking a snapshot doesn't copy the records
+ * (see {@link Task#snapshot()}), so a reader holds a task's lock only for a moment and unchanged
+ * tasks don't take the lock at all.
+ * <br/>
+ * Every snapshot is consistent in itself, but the snapshots in a list may have been taken at
+ * slightly different times. The tasks handed out are snapshots, passing them back to
+ * {@link #startTask(Task)} or {@link #stopTask(Task)} changes the managed task with the same id
+ * and name.
+ */
+public class ConcurrentTaskManager extends TaskManager {
+
+  private final List<Entry> entries = new CopyOnWriteArrayList<>();
+  private final ConcurrentHashMap<Task, Entry> entriesByTask = new ConcurrentHashMap<>();
+
+  /**
+   * Create a manager for the given tasks.
+   *
+   * @param tasks The tasks to manage.
+   * @return A new manager instance.
+   */
+  public static ConcurrentTaskManager createInstance(List<Task> tasks) {
+    if (tasks == null) {
+      throw new IllegalArgumentException("Argument 'tasks' must not be null!");
+    }
+
+    ConcurrentTaskManager manager = new ConcurrentTaskManager();
+    for (Task task : tasks) {
+      manager.addTask(task);
+    }
+    return manager;
+  }
+
+  private ConcurrentTaskManager() {
+  }
+
+  /**
+   * Add a task to this manager.
+   *
+   * @param task The task to add.
+   */
+  public synchronized void addTask(Task task) {
+    if (task == null) {
+      throw new IllegalArgumentException("Argument 'task' must not be null!");
+    }
+    if (entriesByTask.containsKey(task)) {
+      throw new IllegalArgumentException("Task has already been added!");
+    }
+
+    Entry entry = new Entry(task, entries.size());
+    entriesByTask.put(task, entry);
+    entries.add(entry);
+    invalidateCache();
+  }
+
+  /**
+   * Returns snapshots of all tasks, in the order they have been added. The list and the tasks in
+   * it don't change anymore.
+   */
+  @Override
+  public List<Task> getTaskList() {
+    List<Task> tasks = new ArrayList<>(entries.size());
+    for (Entry entry : entries) {
+      tasks.add(entry.getSnapshot());
+    }
+    return Collections.unmodifiableList(tasks);
+  }
+
+  @Override
+  public void startTask(Task task) {
+    if (task == null) {
+      throw new IllegalArgumentException("Argument \"task\" must not be null");
+    }
+
+    Entry entry = entryOf(task);
+    Record record;
+    synchronized (entry) {
+      entry.task.start();
+      record = entry.task.getActiveRecord();
+      entry.version++;
+    }
+    onTaskStarted(entry.task, record);
+  }
+
+  @Override
+  public void stopTask(Task task) {
+    if (task == null) {
+      throw new IllegalArgumentException("Argument \"taskName\" must not be null or empty!)");
+    }
+
+    Entry entry = entryOf(task);
+    Record record;
+    synchronized (entry) {
+      record = entry.task.stop();
+      entry.version++;
+    }
+    onTaskStopped(entry.task, record);
+  }
+
+  /**
+   * Switches the managed tasks while holding the locks of both, so no other thread sees or
+   * changes them in between. The locks are taken in the order the tasks have been added.
+   */
+  @Override
+  public void switchTask(Task from, Task to) {
+    if (from == null) {
+      throw new IllegalArgumentException("Argument 'from' must not be null!");
+    }
+    if (to == null) {
+      throw new IllegalArgumentException("Argument 'to' must not be null!");
+    }
+
+    Entry fromEntry = entryOf(from);
+    Entry toEntry = entryOf(to);
+    if (fromEntry == toEntry) {
+      throw new IllegalArgumentException("Arguments 'from' and 'to' must be different tasks!");
+    }
+
+    Entry first = fromEntry.order < toEntry.order ? fromEntry : toEntry;
+    Entry second = first == fromEntry ? toEntry : fromEntry;
+    Record stopped;
+    Record started = null;
+    RuntimeException startFailure = null;
+    synchronized (first) {
+      synchronized (second) {
+        if (!fromEntry.task.isActive()) {
+          throw new IllegalStateException("Can't stop inactive task.");
+        }
+        if (toEntry.task.isActive()) {
+          throw new IllegalStateException("Task has already been started!");
+        }
+
+        long millis = System.currentTimeMillis();
+        stopped = fromEntry.task.stop(millis);
+        fromEntry.version++;
+        try {
+          toEntry.task.start(millis);
+          started = toEntry.task.getActiveRecord();
+          toEntry.version++;
+        } catch (RuntimeException ex) {
+          startFailure = ex;
+        }
+      }
+    }
+
+    if (startFailure != null) {
+      // the stop has happened and must be recorded, even though the start failed
+      onTaskStopped(fromEntry.task, stopped);
+      throw startFailure;
+    }
+    onTaskSwitched(fromEntry.task, stopped, toEntry.task, started);
+  }
+
+  /**
+   * Checks the managed task, not a snapshot which may be outdated.
+   */
+  @Override
+  public boolean isTaskActive(Task task) {
+    if (task == null) {
+      throw new IllegalArgumentException("Input argument \"task\" was null!");
+    }
+
+    return entryOf(task).task.isActive();
+  }
+
+  private Entry entryOf(Task task) {
+    Entry entry = entriesByTask.get(task);
+    if (entry == null) {
+      throw new IllegalArgumentException("Task is not managed by this manager!");
+    }
+    return entry;
+  }
+
+  /**
+   * A managed task together with its latest snapshot. The task is only changed while holding the
+   * lock of its entry.
+   */
+  private static final class Entry {
+
+    private final Task task;
+    private final int order;
+    private volatile long version;
+    private volatile Snapshot snapshot;
+
+    private Entry(Task task, int order) {
+      this.task = task;
+      this.order = order;
+    }
+
+    private Task getSnapshot() {
+      Snapshot current = snapshot;
+      if (current != null && current.version == version) {
+        return current.task;
+      }
+
+      synchronized (this) {
+        current = snapshot;
+        if (current == null || current.version != version) {
+          current = new Snapshot(task.snapshot(), version);
+          snapshot = current;
+        }
+        return current.task;
+      }
+    }
+  }
+
+  private static final class Snapshot {
+
+    private final Task task;
+    private final long version;
+
+    private Snapshot(Task task, long version) {
+      this.task = task;
+      this.version = version;
+    }
+  }
+}
@@ -2,9 +2,14 @@ package de.hdmstuttgart.zeitfresser.model.manager;
 
 import android.content.Context;
 import de.hdmstuttgart.zeitfresser.db.DbCalls;
+import de.hdmstuttgart.zeitfresser.db.RecordWriteQueue;
 import de.hdmstuttgart.zeitfresser.model.Record;
 import de.hdmstuttgart.zeitfresser.model.Task;
+import de.hdmstuttgart.zeitfresser.model.TaskEvent;
+import de.hdmstuttgart.zeitfresser.model.TaskEventListener;
+import de.hdmstuttgart.zeitfresser.model.TaskSummary;
 
+import java.util.Date;
 import java.util.List;
 
 
@@ -12,9 +17,44 @@ public class DbTaskManager extends TaskManager {
 
   public DbCalls dbCalls = null;
   private Context context = null;
+  private RecordWriteQueue writeQueue = null;
 
+  private final TaskEventListener persistedForwarder = new TaskEventListener() {
+    @Override
+    public void onTaskEvent(TaskEvent event, Task task, Record record) {
+      fireTaskEvent(event, task, record);
+    }
+  };
+
+  /**
+   * Replace the database access. Records still queued for the previous instance are written
+   * first, cached results are dropped.
+   *
+   * @param dbCalls The new database access.
+   */
   public void setDbCalls(DbCalls dbCalls) {
+    if (writeQueue != null) {
+      writeQueue.close();
+      writeQueue = null;
+    }
     this.dbCalls = dbCalls;
+    invalidateCache();
+  }
+
+  /**
+   * Returns the queue stopped records are written through, e.g. to monitor its depth and flush
+   * latency. The queue reports written records as {@link TaskEvent#PERSISTED} events to the
+   * listeners of this manager, on its writer thread.
+   *
+   * @return The write queue of this manager.
+   */
+  public synchronized RecordWriteQueue getWriteQueue() {
+    if (writeQueue == null) {
+      writeQueue = new RecordWriteQueue(context, dbCalls, RecordWriteQueue.DEFAULT_BATCH_SIZE,
+          RecordWriteQueue.DEFAULT_FLUSH_INTERVAL_MILLIS);
+      writeQueue.setTaskEventListener(persistedForwarder);
+    }
+    return writeQueue;
   }
 
   public static DbTaskManager createInstance(Context context, String databaseName) {
@@ -28,14 +68,102 @@ public class DbTaskManager extends TaskManager {
 
   @Override
   public List<Task> getTaskList() {
+    flush();
     return dbCalls.getTasks(this.context);
   }
 
+  /**
+   * Same result as {@link TaskManager#loadFilteredTasks(Date, Date)}, but the date range and the
+   * zero duration filter are evaluated by the database, so tasks outside the range are never
+   * loaded.
+   */
+  @Override
+  protected List<Task> loadFilteredTasks(Date from, Date until) {
+    flush();
+    return dbCalls.getFilteredTasks(this.context, from, until);
+  }
+
+  /**
+   * Same result as {@link TaskManager#loadTaskSummaries(Date, Date)}, but the totals are computed
+   * by the database with a single aggregate query.
+   */
+  @Override
+  protected List<TaskSummary> loadTaskSummaries(Date from, Date until) {
+    flush();
+    return dbCalls.getTaskSummaries(this.context, from, until);
+  }
+
+  /**
+   * Same result as {@link TaskManager#loadWindowSummaries(Date, Date)}, but computed by the
+   * database from the daily totals, so no records are loaded.
+   */
+  @Override
+  protected List<TaskSummary> loadWindowSummaries(Date from, Date until) {
+    flush();
+    return dbCalls.getWindowSummaries(this.context, from, until);
+  }
+
+  /**
+   * Also counts the writes committed to the database by any other component, e.g. the manager
+   * of another activity, so cached results never hide them.
+   */
+  @Override
+  protected long getDataVersion() {
+    return super.getDataVersion() + dbCalls.getDataVersion();
+  }
+
+  /**
+   * Write pending records and release the database connection used by this manager. Call this
+   * when the owning component is destroyed; the manager reconnects transparently if it is used
+   * afterwards.
+   */
+  @Override
+  public void close() {
+    if (writeQueue != null) {
+      writeQueue.close();
+    }
+    dbCalls.close();
+  }
+
+  /**
+   * Write all records queued by {@link #stopTask(Task)} to the database and wait until they have
+   * been committed.
+   */
+  @Override
+  public void flush() {
+    if (writeQueue != null) {
+      writeQueue.flush();
+    }
+  }
+
+  /**
+   * Queue marking the task as running, so it is still running after the app has been closed.
+   */
+  @Override
+  protected void onTaskStarted(Task task, Record record) {
+    getWriteQueue().enqueueStart(task, record.getStartMillis());
+    super.onTaskStarted(task, record);
+  }
+
+  /**
+   * Queue the stopped record and the mark of the started task together, so they are written in
+   * a single transaction.
+   */
+  @Override
+  protected void onTaskSwitched(Task from, Record stopped, Task to, Record started) {
+    getWriteQueue().enqueueSwitch(stopped, from, to, started.getStartMillis());
+    invalidateCache();
+    fireTaskEvent(TaskEvent.STOPPED, from, stopped);
+    fireTaskEvent(TaskEvent.STARTED, to, started);
+  }
+
+  /**
+   * Queue the stopped record for writing. The record is the one returned by {@link Task#stop()},
+   * so concurrent stops can't queue the same record twice.
+   */
   @Override
-  public void stopTask(Task task) {
-    // Get reference to last active record before stopping
-    Record activeRecord = task.getActiveRecord();
-    super.stopTask(task);
-    dbCalls.persistRecord(context, activeRecord, task);
+  protected void onTaskStopped(Task task, Record record) {
+    getWriteQueue().enqueue(record, task);
+    super.onTaskStopped(task, record);
   }
 }
@@ -0,0 +1,74 @@
+package de.hdmstuttgart.zeitfresser.model.manager;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs a loop over the indices [0, size) on a {@link ForkJoinPool}. The range is split in halves
+ * until the parts are small enough to give every worker of the pool a few of them, so idle
+ * workers can steal the rest.
+ * <br/>
+ * Every index is visited by exactly one worker. Bodies therefore write their results to arrays
+ * at the index they are visiting instead of sharing a collection, and the caller collects them
+ * in order once {@link #forEach(ForkJoinPool, int, Body)} has returned.
+ */
+final class ParallelRange {
+
+  // parts per worker, more parts balance better but cost more forks
+  private static final int PARTS_PER_WORKER = 4;
+
+  /**
+   * The loop body, called with consecutive parts of the range.
+   */
+  interface Body {
+
+    /**
+     * Visit the indices [<code>from</code>, <code>until</code>).
+     *
+     * @param from  First index, inclusive.
+     * @param until Last index, exclusive.
+     */
+    void run(int from, int until);
+  }
+
+  private ParallelRange() {
+  }
+
+  /**
+   * Visit all indices [0, <code>size</code>) and wait until all of them have been visited.
+   *
+   * @param pool The pool to run the parts on.
+   * @param size The number of indices.
+   * @param body The loop body.
+   */
+  static void forEach(ForkJoinPool pool, int size, Body body) {
+    int partSize = Math.max(1, size / (pool.getParallelism() * PARTS_PER_WORKER));
+    pool.invoke(new Part(body, 0, size, partSize));
+  }
+
+  private static final class Part extends RecursiveAction {
+
+    private final Body body;
+    private final int from;
+    private final int until;
+    private final int partSize;
+
+    private Part(Body body, int from, int until, int partSize) {
+      this.body = body;
+      this.from = from;
+      this.until = until;
+      this.partSize = partSize;
+    }
+
+    @Override
+    protected void compute() {
+      if (until - from <= partSize) {
+        body.run(from, until);
+        return;
+      }
+
+      int middle = (from + until) >>> 1;
+      invokeAll(new Part(body, from, middle, partSize), new Part(body, middle, until, partSize));
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package de.hdmstuttgart.zeitfresser.model.manager;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache for the results of a query over a date range, evicting the least recently used
+ * range first.
+ * <br/>
+ * Every result belongs to a data version. Looking up or storing a result for a newer version
+ * drops all results of older ones, results computed for an outdated version aren't stored at
+ * all. Callers read the version before computing a result, so a result is never returned for
+ * data which has changed after it was computed.
+ *
+ * @param <V> The type of the cached results.
+ */
+final class RangeCache<V> {
+
+  private final LinkedHashMap<Range, V> results;
+  private long version;
+  private long hits;
+  private long misses;
+
+  /**
+   * Create an empty cache.
+   *
+   * @param capacity The maximum number of ranges to keep results for.
+   */
+  RangeCache(final int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Argument 'capacity' must be positive!");
+    }
+
+    // access order: iteration and therefore eviction starts at the least recently used range
+    this.results = new LinkedHashMap<Range, V>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Range, V> eldest) {
+        return size() > capacity;
+      }
+    };
+  }
+
+  /**
+   * Look up the result for a range.
+   *
+   * @param from    Start of the range, may be null.
+   * @param until   End of the range, may be null.
+   * @param version The current data version.
+   * @return The result computed for this range and version, or null if there is none.
+   */
+  synchronized V get(Date from, Date until, long version) {
+    V result = null;
+    if (update(version)) {
+      result = results.get(new Range(from, until));
+    }
+
+    if (result != null) {
+      hits++;
+    } else {
+      misses++;
+    }
+    return result;
+  }
+
+  /**
+   * Store the result for a range.
+   *
+   * @param from    Start of the range, may be null.
+   * @param until   End of the range, may be null.
+   * @param version The data version read before computing the result.
+   * @param result  The result to store.
+   */
+  synchronized void put(Date from, Date until, long version, V result) {
+    if (update(version)) {
+      results.put(new Range(from, until), result);
+    }
+  }
+
+  synchronized long getHitCount() {
+    return hits;
+  }
+
+  synchronized long getMissCount() {
+    return misses;
+  }
+
+  /**
+   * Move on to the given version, dropping results of older ones. Returns false if the version
+   * is outdated itself.
+   */
+  private boolean update(long version) {
+    if (version < this.version) {
+      return false;
+    }
+    if (version > this.version) {
+      results.clear();
+      this.version = version;
+    }
+    return true;
+  }
+
+  private static final class Range {
+
+    private final long from;
+    private final long until;
+    private final boolean hasFrom;
+    private final boolean hasUntil;
+
+    private Range(Date from, Date until) {
+      this.hasFrom = from != null;
+      this.hasUntil = until != null;
+      this.from = hasFrom ? from.getTime() : 0;
+      this.until = hasUntil ? until.getTime() : 0;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Range)) {
+        return false;
+      }
+
+      Range range = (Range) other;
+      return from == range.from && until == range.until && hasFrom == range.hasFrom
+          && hasUntil == range.hasUntil;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = (int) (from ^ (from >>> 32));
+      result = 31 * result + (int) (until ^ (until >>> 32));
+      result = 31 * result + (hasFrom ? 1 : 0);
+      return 31 * result + (hasUntil ? 1 : 0);
+    }
+  }
+}
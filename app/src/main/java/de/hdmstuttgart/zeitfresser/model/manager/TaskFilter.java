@@ -0,0 +1,106 @@
+package de.hdmstuttgart.zeitfresser.model.manager;
+
+import de.hdmstuttgart.zeitfresser.model.Task;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The criteria of {@link TaskManager#getFilteredTasks(Date, Date)} combined into a single
+ * predicate. A task matches if it has recorded any time at all, a record starting after
+ * <code>from</code> and a record starting before <code>until</code>; a bound which is null isn't
+ * checked.
+ * <br/>
+ * {@link #apply(List)} evaluates all criteria in one pass over the tasks, cheapest first, so a
+ * task is dropped as soon as one of them fails and no intermediate lists are built.
+ * {@link #applyParallel(List, ForkJoinPool)} splits that pass across the workers of a pool.
+ */
+final class TaskFilter {
+
+  private final Date from;
+  private final Date until;
+
+  /**
+   * Create a filter for the given date range.
+   *
+   * @param from  Tasks must have a record starting after this date (if not null).
+   * @param until Tasks must have a record starting before this date (if not null).
+   * @return A new filter.
+   */
+  static TaskFilter between(Date from, Date until) {
+    return new TaskFilter(from, until);
+  }
+
+  private TaskFilter(Date from, Date until) {
+    this.from = from;
+    this.until = until;
+  }
+
+  /**
+   * Check a single task against all criteria.
+   *
+   * @param task The task to check.
+   * @return True if the task matches, false otherwise.
+   */
+  boolean matches(Task task) {
+    // the total is maintained by the task, the date checks search its records
+    return task.getOverallDurationMillis() > 0
+        && (from == null || task.hasRecordsAfter(from))
+        && (until == null || task.hasRecordsBefore(until));
+  }
+
+  /**
+   * Collect the matching tasks.
+   *
+   * @param tasks The tasks to filter.
+   * @return The matching tasks, in the order of <code>tasks</code>.
+   */
+  List<Task> apply(List<Task> tasks) {
+    if (tasks == null) {
+      throw new IllegalArgumentException("Argument 'tasks' must not be null!");
+    }
+
+    List<Task> result = new ArrayList<>(tasks.size());
+    for (Task task : tasks) {
+      if (matches(task)) {
+        result.add(task);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Collect the matching tasks like {@link #apply(List)}, but check them on the workers of the
+   * given pool. Every task is checked by a single worker.
+   *
+   * @param tasks The tasks to filter.
+   * @param pool  The pool to check the tasks on.
+   * @return The matching tasks, in the order of <code>tasks</code>.
+   */
+  List<Task> applyParallel(List<Task> tasks, ForkJoinPool pool) {
+    if (tasks == null) {
+      throw new IllegalArgumentException("Argument 'tasks' must not be null!");
+    }
+
+    final Task[] candidates = tasks.toArray(new Task[tasks.size()]);
+    final boolean[] matching = new boolean[candidates.length];
+    ParallelRange.forEach(pool, candidates.length, new ParallelRange.Body() {
+      @Override
+      public void run(int first, int end) {
+        for (int i = first; i < end; i++) {
+          matching[i] = matches(candidates[i]);
+        }
+      }
+    });
+
+    List<Task> result = new ArrayList<>(candidates.length);
+    for (int i = 0; i < candidates.length; i++) {
+      if (matching[i]) {
+        result.add(candidates[i]);
+      }
+    }
+    return result;
+  }
+}
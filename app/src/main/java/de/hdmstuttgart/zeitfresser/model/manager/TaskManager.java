@@ -1,14 +1,61 @@
 package de.hdmstuttgart.zeitfresser.model.manager;
 
 import com.github.mikephil.charting.data.Entry;
+import de.hdmstuttgart.zeitfresser.model.Granularity;
+import de.hdmstuttgart.zeitfresser.model.IntervalIndex;
+import de.hdmstuttgart.zeitfresser.model.Record;
 import de.hdmstuttgart.zeitfresser.model.Task;
-
+import de.hdmstuttgart.zeitfresser.model.TaskEvent;
+import de.hdmstuttgart.zeitfresser.model.TaskEventListener;
+import de.hdmstuttgart.zeitfresser.model.TaskSummary;
+import de.hdmstuttgart.zeitfresser.model.TimeBuckets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TimeZone;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class TaskManager {
 
+  /**
+   * Default for {@link #setParallelThreshold(int)}. Checking a single task takes well below a
+   * microsecond, so splitting the work only pays off for several thousand tasks.
+   */
+  public static final int DEFAULT_PARALLEL_THRESHOLD = 4096;
+
+  /**
+   * The number of date ranges for which each of the range queries keeps its latest result.
+   */
+  public static final int CACHE_CAPACITY = 16;
+
+  /**
+   * The name of the summary {@link #topTasks(Date, Date, int)} sums up the remaining tasks in.
+   */
+  public static final String DEFAULT_OTHER_NAME = "Other";
+
+  // copy on write: events are fired far more often than listeners come and go, and firing
+  // iterates a snapshot without locking
+  private final List<TaskEventListener> listeners = new CopyOnWriteArrayList<>();
+
+  private volatile ForkJoinPool parallelPool;
+  private volatile int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+  // bumped on every change made through this manager, cached results of older versions are stale
+  private final AtomicLong dataVersion = new AtomicLong();
+  private final RangeCache<List<Task>> filteredTasksCache = new RangeCache<>(CACHE_CAPACITY);
+  private final RangeCache<List<TaskSummary>> taskSummariesCache =
+      new RangeCache<>(CACHE_CAPACITY);
+  private final RangeCache<List<TaskSummary>> windowSummariesCache =
+      new RangeCache<>(CACHE_CAPACITY);
+
   /**
    * Return the current task list.
    *
@@ -27,6 +74,7 @@ public abstract class TaskManager {
     }
 
     task.start();
+    onTaskStarted(task, task.getActiveRecord());
   }
 
   /**
@@ -40,7 +88,183 @@ public abstract class TaskManager {
       throw new IllegalArgumentException("Argument \"taskName\" must not be null or empty!)");
     }
 
-    task.stop();
+    Record record = task.stop();
+    onTaskStopped(task, record);
+  }
+
+  /**
+   * Stop one task and start another one at the same instant. Both records share a single
+   * timestamp, so there is no gap between them, and managers backed by a database write the
+   * change at once.
+   *
+   * @param from The active task to stop.
+   * @param to   The inactive task to start.
+   */
+  public void switchTask(Task from, Task to) {
+    if (from == null) {
+      throw new IllegalArgumentException("Argument 'from' must not be null!");
+    }
+    if (to == null) {
+      throw new IllegalArgumentException("Argument 'to' must not be null!");
+    }
+    if (from.equals(to)) {
+      throw new IllegalArgumentException("Arguments 'from' and 'to' must be different tasks!");
+    }
+    // check both first, so a failing switch doesn't change either task
+    if (!from.isActive()) {
+      throw new IllegalStateException("Can't stop inactive task.");
+    }
+    if (to.isActive()) {
+      throw new IllegalStateException("Task has already been started!");
+    }
+
+    long millis = System.currentTimeMillis();
+    Record stopped = from.stop(millis);
+    try {
+      to.start(millis);
+    } catch (RuntimeException ex) {
+      // e.g. started concurrently after the check; the stop has happened and must be recorded
+      onTaskStopped(from, stopped);
+      throw ex;
+    }
+    onTaskSwitched(from, stopped, to, to.getActiveRecord());
+  }
+
+  /**
+   * Called once a task has been started through this manager, with its new active record.
+   * Invalidates cached results and notifies the listeners by default; implementations overriding
+   * this have to call the super implementation.
+   *
+   * @param task   The task which has been started.
+   * @param record The record which has been started.
+   */
+  protected void onTaskStarted(Task task, Record record) {
+    invalidateCache();
+    fireTaskEvent(TaskEvent.STARTED, task, record);
+  }
+
+  /**
+   * Called once {@link #switchTask(Task, Task)} has stopped one task and started another one.
+   * Calls {@link #onTaskStopped(Task, Record)} and {@link #onTaskStarted(Task, Record)} by
+   * default.
+   *
+   * @param from    The task which has been stopped.
+   * @param stopped The record which has been stopped.
+   * @param to      The task which has been started.
+   * @param started The record which has been started.
+   */
+  protected void onTaskSwitched(Task from, Record stopped, Task to, Record started) {
+    onTaskStopped(from, stopped);
+    onTaskStarted(to, started);
+  }
+
+  /**
+   * Called once a task has been stopped through this manager, with the record which has been
+   * stopped. Invalidates cached results and notifies the listeners by default; implementations
+   * overriding this have to call the super implementation.
+   *
+   * @param task   The task which has been stopped.
+   * @param record The record which has been stopped.
+   */
+  protected void onTaskStopped(Task task, Record record) {
+    invalidateCache();
+    fireTaskEvent(TaskEvent.STOPPED, task, record);
+  }
+
+  /**
+   * Register a listener which gets notified when tasks are started or stopped through this
+   * manager and, for managers backed by a database, when their records have been persisted.
+   *
+   * @param listener The listener to add.
+   */
+  public void addTaskEventListener(TaskEventListener listener) {
+    if (listener == null) {
+      throw new IllegalArgumentException("Argument 'listener' must not be null!");
+    }
+
+    listeners.add(listener);
+  }
+
+  /**
+   * Unregister a listener added with {@link #addTaskEventListener(TaskEventListener)}.
+   *
+   * @param listener The listener to remove.
+   */
+  public void removeTaskEventListener(TaskEventListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Notify all registered listeners, in the order they have been added. Returns right away if
+   * nobody listens.
+   *
+   * @param event  The kind of event.
+   * @param task   The task the event belongs to.
+   * @param record The record which has been started, stopped or persisted.
+   */
+  protected void fireTaskEvent(TaskEvent event, Task task, Record record) {
+    if (listeners.isEmpty()) {
+      return;
+    }
+    for (TaskEventListener listener : listeners) {
+      listener.onTaskEvent(event, task, record);
+    }
+  }
+
+  /**
+   * Drop the cached results of {@link #getFilteredTasks(Date, Date)},
+   * {@link #getTaskSummaries(Date, Date)} and {@link #getWindowSummaries(Date, Date)}. Tasks
+   * started or stopped through this manager do so on their own; call this after changing tasks
+   * or their records in any other way, e.g. {@link Task#addRecord(Record)}.
+   */
+  public void invalidateCache() {
+    dataVersion.incrementAndGet();
+  }
+
+  /**
+   * Returns the version cached results are checked against, it grows with every change. By
+   * default only changes made through this manager or announced by {@link #invalidateCache()}
+   * are counted; implementations whose tasks can be changed by others add their own count. The
+   * result must never decrease.
+   *
+   * @return The current data version.
+   */
+  protected long getDataVersion() {
+    return dataVersion.get();
+  }
+
+  /**
+   * Get the number of range queries answered from the cache.
+   *
+   * @return The number of cache hits.
+   */
+  public long getCacheHitCount() {
+    return filteredTasksCache.getHitCount() + taskSummariesCache.getHitCount()
+        + windowSummariesCache.getHitCount();
+  }
+
+  /**
+   * Get the number of range queries which had to be computed.
+   *
+   * @return The number of cache misses.
+   */
+  public long getCacheMissCount() {
+    return filteredTasksCache.getMissCount() + taskSummariesCache.getMissCount()
+        + windowSummariesCache.getMissCount();
+  }
+
+  /**
+   * Make sure all changes made through this manager have been persisted. Does nothing by
+   * default; implementations which write in the background block until they are done.
+   */
+  public void flush() {
+  }
+
+  /**
+   * Release any resources held by this manager. Does nothing by default; implementations backed
+   * by a database give back their connection here.
+   */
+  public void close() {
   }
 
   /**
@@ -63,12 +287,48 @@ public abstract class TaskManager {
    * @param task The task for which total time shall be computed.
    * @return The total amount of time over all records attached to {@code task}.
    */
-  public float getOverallDurationForTask(Task task) {
+  public long getOverallDurationForTask(Task task) {
     if (task == null) {
       throw new IllegalArgumentException("Input argument \"task\" was null!");
     }
 
-    return task.getOverallDuration();
+    return task.getOverallDurationMillis();
+  }
+
+  /**
+   * Let {@link #getFilteredTasks(Date, Date)} and {@link #asEntryList(List)} split their work
+   * across the workers of a pool once there are at least as many tasks as the parallel threshold.
+   * Smaller lists are still processed on the calling thread, since forking costs more than it
+   * saves for them. Parallel evaluation is disabled by default.
+   * <br/>
+   * Every task is evaluated by a single worker, but tasks aren't thread-safe: nobody else must
+   * change them meanwhile, just like for sequential evaluation from another thread.
+   *
+   * @param pool The pool to use, or null to evaluate sequentially.
+   */
+  public void setParallelPool(ForkJoinPool pool) {
+    this.parallelPool = pool;
+  }
+
+  /**
+   * Set the number of tasks from which on work is split across the pool given to
+   * {@link #setParallelPool(ForkJoinPool)}. Defaults to {@link #DEFAULT_PARALLEL_THRESHOLD}.
+   *
+   * @param threshold The minimum number of tasks to evaluate in parallel.
+   */
+  public void setParallelThreshold(int threshold) {
+    if (threshold < 1) {
+      throw new IllegalArgumentException("Argument 'threshold' must be positive!");
+    }
+    this.parallelThreshold = threshold;
+  }
+
+  /**
+   * Returns the pool to evaluate the given tasks on, or null if they are evaluated sequentially.
+   */
+  private ForkJoinPool getParallelPoolFor(List<Task> tasks) {
+    ForkJoinPool pool = parallelPool;
+    return pool != null && tasks.size() >= parallelThreshold ? pool : null;
   }
 
   /**
@@ -76,83 +336,241 @@ public abstract class TaskManager {
    * <code>from</code> and <code>to</code>. If one of the arguments is null, this filter criterion
    * is simply ignored. If both arguments are null, there's no filtering according to start or
    * end date at all.
+   * <br/>
+   * The result is cached per range until the data changes, e.g. a task is started or stopped,
+   * see {@link #getDataVersion()} and {@link #invalidateCache()}. It can't be modified.
    *
    * @param from Defines the start of the period of interest (if not null).
    * @param until   Defines the end of the period of interest (if not null).
    * @return A list of tasks matching the given date range.
    */
   public List<Task> getFilteredTasks(Date from, Date until) {
+    long version = getDataVersion();
+    List<Task> tasks = filteredTasksCache.get(from, until, version);
+    if (tasks == null) {
+      tasks = Collections.unmodifiableList(loadFilteredTasks(from, until));
+      filteredTasksCache.put(from, until, version, tasks);
+    }
+    return tasks;
+  }
+
+  /**
+   * Compute the result of {@link #getFilteredTasks(Date, Date)} on a cache miss.
+   *
+   * @param from  Defines the start of the period of interest (if not null).
+   * @param until Defines the end of the period of interest (if not null).
+   * @return A list of tasks matching the given date range.
+   */
+  protected List<Task> loadFilteredTasks(Date from, Date until) {
+    TaskFilter filter = TaskFilter.between(from, until);
     List<Task> tasks = getTaskList();
 
-    if (from == null && until == null) {
-      return filterZeroDurationTasks(tasks);
-    }
+    ForkJoinPool pool = getParallelPoolFor(tasks);
+    return pool != null ? filter.applyParallel(tasks, pool) : filter.apply(tasks);
+  }
 
-    if (from != null) {
-      tasks = getTasksWithRecordsLaterThan(from, tasks);
+  /**
+   * Retrieve a {@link TaskSummary} for every task {@link #getFilteredTasks(Date, Date)} would
+   * return for the same arguments. Cached just like the tasks themselves.
+   *
+   * @param from  Defines the start of the period of interest (if not null).
+   * @param until Defines the end of the period of interest (if not null).
+   * @return A list of summaries for the tasks matching the given date range.
+   */
+  public List<TaskSummary> getTaskSummaries(Date from, Date until) {
+    long version = getDataVersion();
+    List<TaskSummary> summaries = taskSummariesCache.get(from, until, version);
+    if (summaries == null) {
+      summaries = Collections.unmodifiableList(loadTaskSummaries(from, until));
+      taskSummariesCache.put(from, until, version, summaries);
     }
+    return summaries;
+  }
+
+  /**
+   * Compute the result of {@link #getTaskSummaries(Date, Date)} on a cache miss. Implementations
+   * backed by a database may compute the totals there instead of loading any records.
+   *
+   * @param from  Defines the start of the period of interest (if not null).
+   * @param until Defines the end of the period of interest (if not null).
+   * @return A list of summaries for the tasks matching the given date range.
+   */
+  protected List<TaskSummary> loadTaskSummaries(Date from, Date until) {
+    List<Task> tasks = getFilteredTasks(from, until);
+    List<TaskSummary> summaries = new ArrayList<>(tasks.size());
 
-    if (until != null) {
-      tasks = getTasksWithRecordsEarlierThan(until, tasks);
+    for (Task task : tasks) {
+      summaries.add(TaskSummary.fromTask(task));
     }
 
-    return filterZeroDurationTasks(tasks);
+    return summaries;
   }
 
-  private List<Task> getTasksWithRecordsLaterThan(Date date, List<Task> tasks) {
-    if (date == null) {
-      throw new IllegalArgumentException("Argument 'date' must not be null!");
+  /**
+   * Retrieve a {@link TaskSummary} for every task which has recorded time in the window
+   * [<code>from</code>, <code>until</code>). Unlike {@link #getTaskSummaries(Date, Date)}, the
+   * totals only contain the time inside the window: records straddling a bound are clipped to
+   * it. Tasks without any time in the window are left out. Cached just like
+   * {@link #getFilteredTasks(Date, Date)}.
+   *
+   * @param from  Start of the window, inclusive (unbounded if null).
+   * @param until End of the window, exclusive (unbounded if null).
+   * @return A list of summaries with the time spent in the window per task.
+   */
+  public List<TaskSummary> getWindowSummaries(Date from, Date until) {
+    long version = getDataVersion();
+    List<TaskSummary> summaries = windowSummariesCache.get(from, until, version);
+    if (summaries == null) {
+      summaries = Collections.unmodifiableList(loadWindowSummaries(from, until));
+      windowSummariesCache.put(from, until, version, summaries);
     }
+    return summaries;
+  }
 
-    if (tasks == null) {
-      throw new IllegalArgumentException("Argument 'tasks' must not be null!");
-    }
+  /**
+   * Compute the result of {@link #getWindowSummaries(Date, Date)} on a cache miss.
+   *
+   * @param from  Start of the window, inclusive (unbounded if null).
+   * @param until End of the window, exclusive (unbounded if null).
+   * @return A list of summaries with the time spent in the window per task.
+   */
+  protected List<TaskSummary> loadWindowSummaries(Date from, Date until) {
+    long fromMillis = from != null ? from.getTime() : Long.MIN_VALUE;
+    long untilMillis = until != null ? until.getTime() : Long.MAX_VALUE;
+
+    List<Task> tasks = getTaskList();
+    List<TaskSummary> summaries = new ArrayList<>(tasks.size());
 
-    List<Task> newTaskList = new LinkedList<>();
     for (Task task : tasks) {
-      if (task.hasRecordsAfter(date)) {
-        newTaskList.add(task);
+      long millis = task.getDurationMillisBetween(fromMillis, untilMillis);
+      if (millis > 0) {
+        summaries.add(TaskSummary.of(task.getId(), task.getName(), millis));
       }
     }
-    return newTaskList;
+
+    return summaries;
+  }
+
+  /**
+   * Retrieve the <code>n</code> tasks with the most time in the window [<code>from</code>,
+   * <code>until</code>), largest first, like {@link #getWindowSummaries(Date, Date)} would
+   * return them. If there are more tasks, their time is summed up in a last summary with the id
+   * {@link TaskSummary#OTHER_ID} and the name {@link #DEFAULT_OTHER_NAME}, so the result never
+   * has more than <code>n + 1</code> elements.
+   *
+   * @param from  Start of the window, inclusive (unbounded if null).
+   * @param until End of the window, exclusive (unbounded if null).
+   * @param n     The maximum number of tasks to return on their own.
+   * @return The largest tasks, followed by the sum of the remaining ones if there are any.
+   */
+  public List<TaskSummary> topTasks(Date from, Date until, int n) {
+    return topTasks(from, until, n, DEFAULT_OTHER_NAME);
   }
 
-  private List<Task> getTasksWithRecordsEarlierThan(Date date, List<Task> tasks) {
-    if (date == null) {
-      throw new IllegalArgumentException("Argument 'date' must not be null!");
+  /**
+   * Same as {@link #topTasks(Date, Date, int)}, but with a custom name for the summary of the
+   * remaining tasks, e.g. a localized one.
+   *
+   * @param from      Start of the window, inclusive (unbounded if null).
+   * @param until     End of the window, exclusive (unbounded if null).
+   * @param n         The maximum number of tasks to return on their own.
+   * @param otherName The name of the summary of the remaining tasks.
+   * @return The largest tasks, followed by the sum of the remaining ones if there are any.
+   */
+  public List<TaskSummary> topTasks(Date from, Date until, int n, String otherName) {
+    if (n < 1) {
+      throw new IllegalArgumentException("Argument 'n' must be positive!");
     }
 
-    if (tasks == null) {
-      throw new IllegalArgumentException("Argument 'tasks' must not be null!");
+    final List<TaskSummary> summaries = getWindowSummaries(from, until);
+    if (summaries.size() <= n) {
+      return sortLargestFirst(summaries);
     }
 
-    List<Task> newTaskList = new LinkedList<>();
-    for (Task task : tasks) {
-      if (task.hasRecordsBefore(date)) {
-        newTaskList.add(task);
+    // min-heap of the n largest seen so far, its head is the first one to drop; ties are broken
+    // by the position, so the result doesn't depend on the order of insertion
+    PriorityQueue<Integer> largest = new PriorityQueue<>(n, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer first, Integer second) {
+        return compareSizes(summaries, second, first);
+      }
+    });
+    long total = 0;
+    for (int i = 0; i < summaries.size(); i++) {
+      total += summaries.get(i).getTotalMillis();
+      if (largest.size() < n) {
+        largest.add(i);
+      } else if (compareSizes(summaries, i, largest.peek()) < 0) {
+        largest.poll();
+        largest.add(i);
       }
     }
-    return newTaskList;
-  }
 
+    TaskSummary[] top = new TaskSummary[n];
+    long other = total;
+    for (int i = n - 1; i >= 0; i--) {
+      top[i] = summaries.get(largest.poll());
+      other -= top[i].getTotalMillis();
+    }
 
-  private List<Task> filterZeroDurationTasks(List<Task> tasks) {
-    if (tasks == null) {
-      throw new IllegalArgumentException("Argument 'tasks' must not be null");
-    } else {
-
-      List<Task> filteredList = new LinkedList<>();
+    List<TaskSummary> result = new ArrayList<>(n + 1);
+    Collections.addAll(result, top);
+    result.add(TaskSummary.of(TaskSummary.OTHER_ID, otherName, other));
+    return result;
+  }
 
-      for (Task task : tasks) {
-        if (task.getOverallDuration() > 0.0f) {
-          filteredList.add(task);
-        }
+  private static List<TaskSummary> sortLargestFirst(List<TaskSummary> summaries) {
+    List<TaskSummary> result = new ArrayList<>(summaries);
+    // stable, so ties keep their order just like in the heap
+    Collections.sort(result, new Comparator<TaskSummary>() {
+      @Override
+      public int compare(TaskSummary first, TaskSummary second) {
+        return Long.compare(second.getTotalMillis(), first.getTotalMillis());
       }
+    });
+    return result;
+  }
 
-      return filteredList;
+  /**
+   * Orders the summaries at the given positions by their total, largest first, and then by
+   * their position.
+   */
+  private static int compareSizes(List<TaskSummary> summaries, int first, int second) {
+    int bySize = Long.compare(summaries.get(second).getTotalMillis(),
+        summaries.get(first).getTotalMillis());
+    return bySize != 0 ? bySize : Integer.compare(first, second);
+  }
+
+  /**
+   * Split the time recorded for every task into buckets of the given granularity, e.g. to chart
+   * the time spent per day. Records crossing a bucket boundary are split at it, so even long
+   * ranges stay exact to the millisecond. Bucket boundaries follow the default time zone.
+   *
+   * @param from        Start of the range, inclusive.
+   * @param until       End of the range, exclusive.
+   * @param granularity The length of the buckets.
+   * @return A matrix with a row per task and a column per bucket.
+   */
+  public TimeBuckets aggregate(Date from, Date until, Granularity granularity) {
+    if (from == null) {
+      throw new IllegalArgumentException("Argument 'from' must not be null!");
+    }
+    if (until == null) {
+      throw new IllegalArgumentException("Argument 'until' must not be null!");
     }
 
+    return TimeBuckets.aggregate(getTaskList(), from.getTime(), until.getTime(), granularity,
+        TimeZone.getDefault());
+  }
 
+  /**
+   * Build an {@link IntervalIndex} over the records of all tasks, e.g. to find the tasks which
+   * were running at a certain point in time. The index is a snapshot of the current records.
+   *
+   * @return A new index over all records.
+   */
+  public IntervalIndex buildIntervalIndex() {
+    return IntervalIndex.fromTasks(getTaskList());
   }
 
   /**
@@ -167,10 +585,52 @@ public abstract class TaskManager {
       throw new IllegalArgumentException("Argument 'tasks' must not be null!");
     }
 
+    ForkJoinPool pool = getParallelPoolFor(tasks);
+    if (pool != null) {
+      return asEntryListParallel(tasks, pool);
+    }
+
     List<Entry> entries = new LinkedList<>();
 
     for (Task task : tasks) {
-      entries.add(new Entry(task.getOverallDuration(), (int) task.getId()));
+      entries.add(new Entry(task.getOverallDurationMillis(), (int) task.getId()));
+    }
+
+    return entries;
+  }
+
+  private List<Entry> asEntryListParallel(List<Task> tasks, ForkJoinPool pool) {
+    final Task[] sources = tasks.toArray(new Task[tasks.size()]);
+    final Entry[] entries = new Entry[sources.length];
+    ParallelRange.forEach(pool, sources.length, new ParallelRange.Body() {
+      @Override
+      public void run(int from, int until) {
+        for (int i = from; i < until; i++) {
+          entries[i] = new Entry(sources[i].getOverallDurationMillis(), (int) sources[i].getId());
+        }
+      }
+    });
+    return new ArrayList<>(Arrays.asList(entries));
+  }
+
+  /**
+   * Convert a list of task summaries to a list of chart entries, analogous to
+   * {@link #asEntryList(List)}. The x-index of every entry is its position in the list, which
+   * is where the chart looks up its label from {@link #asSummaryNamesList(List)}; the summaries
+   * don't need to be ordered by id and may include one of {@link TaskSummary#OTHER_ID}.
+   *
+   * @param summaries The list of summaries to be converted.
+   * @return A corresponding list of entries.
+   */
+  public List<Entry> asSummaryEntryList(List<TaskSummary> summaries) {
+    if (summaries == null) {
+      throw new IllegalArgumentException("Argument 'summaries' must not be null!");
+    }
+
+    List<Entry> entries = new ArrayList<>(summaries.size());
+
+    for (int i = 0; i < summaries.size(); i++) {
+      entries.add(new Entry(summaries.get(i).getTotalMillis(), i));
     }
 
     return entries;
@@ -196,5 +656,25 @@ public abstract class TaskManager {
     return labels;
   }
 
+  /**
+   * Convert a list of task summaries to another list containing their corresponding labels.
+   *
+   * @param summaries The list of summaries whose labels are extracted.
+   * @return A list of labels.
+   */
+  public List<String> asSummaryNamesList(List<TaskSummary> summaries) {
+    if (summaries == null) {
+      throw new IllegalArgumentException("Argument 'summaries' must not be null!");
+    }
+
+    List<String> labels = new ArrayList<>(summaries.size());
+
+    for (TaskSummary summary : summaries) {
+      labels.add(summary.getName());
+    }
+
+    return labels;
+  }
+
 
 }
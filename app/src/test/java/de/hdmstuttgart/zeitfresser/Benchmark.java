@@ -0,0 +1,108 @@
+package de.hdmstuttgart.zeitfresser;
+
+import org.junit.Assume;
+import org.junit.Before;
+
+/**
+ * Base class of the micro benchmarks among the unit tests. Benchmarks are skipped unless they
+ * have been requested, e.g. for a single one:
+ * <pre>
+ * ./gradlew test -Pbenchmark --tests '*TaskFilterBenchmarkTest'
+ * </pre>
+ * Every variant is warmed up before it is measured, and results are printed to stdout. JMH isn't
+ * available for the Android unit test setup, so the numbers are rough; compare variants of the
+ * same run only.
+ */
+public abstract class Benchmark {
+
+  /**
+   * The system property enabling benchmarks, set by the build for <code>-Pbenchmark</code>.
+   */
+  public static final String PROPERTY = "zeitfresser.benchmark";
+
+  /**
+   * A single round of a variant under test.
+   */
+  protected interface Variant {
+
+    void run() throws Exception;
+  }
+
+  /**
+   * Skip unless benchmarks have been requested. Runs before the setup of subclasses, so they
+   * don't prepare any data in vain.
+   */
+  @Before
+  public final void assumeBenchmarksRequested() {
+    Assume.assumeTrue(Boolean.getBoolean(PROPERTY));
+  }
+
+  /**
+   * Run the given variants alternately, first for some rounds to warm up, then for some rounds
+   * which are measured.
+   *
+   * @param warmupRounds   The number of rounds which aren't measured.
+   * @param measuredRounds The number of rounds which are measured.
+   * @param variants       The variants to compare.
+   * @return The average time per round in nanoseconds, in the order of <code>variants</code>.
+   * @throws Exception If a variant fails.
+   */
+  protected static long[] compare(int warmupRounds, int measuredRounds, Variant... variants)
+      throws Exception {
+    for (int round = 0; round < warmupRounds; round++) {
+      for (Variant variant : variants) {
+        variant.run();
+      }
+    }
+
+    long[] nanos = new long[variants.length];
+    for (int round = 0; round < measuredRounds; round++) {
+      for (int i = 0; i < variants.length; i++) {
+        long begin = System.nanoTime();
+        variants[i].run();
+        nanos[i] += System.nanoTime() - begin;
+      }
+    }
+
+    for (int i = 0; i < nanos.length; i++) {
+      nanos[i] /= measuredRounds;
+    }
+    return nanos;
+  }
+
+  /**
+   * Run a variant for at least half of the given time to warm up, then for at least the given
+   * time which is measured. Suits variants whose duration varies too much between scenarios for
+   * a fixed number of rounds.
+   *
+   * @param minNanos The minimum measured time in nanoseconds.
+   * @param variant  The variant to measure.
+   * @return The average time per round in nanoseconds.
+   * @throws Exception If the variant fails.
+   */
+  protected static long measureFor(long minNanos, Variant variant) throws Exception {
+    runFor(minNanos / 2, variant);
+    return runFor(minNanos, variant);
+  }
+
+  private static long runFor(long minNanos, Variant variant) throws Exception {
+    long rounds = 0;
+    long begin = System.nanoTime();
+    long nanos;
+    do {
+      variant.run();
+      rounds++;
+      nanos = System.nanoTime() - begin;
+    } while (nanos < minNanos);
+    return nanos / rounds;
+  }
+
+  /**
+   * Print a result, prefixed with the name of the benchmark.
+   *
+   * @param result The result to print.
+   */
+  protected void report(String result) {
+    System.out.println(getClass().getSimpleName() + ": " + result);
+  }
+}
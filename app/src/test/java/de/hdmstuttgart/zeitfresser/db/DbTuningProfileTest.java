@@ -0,0 +1,58 @@
+package de.hdmstuttgart.zeitfresser.db;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+/**
+ * A test class for {@link DbTuningProfile}.
+ */
+public class DbTuningProfileTest {
+
+  /**
+   * The default profile must not change any setting.
+   */
+  @Test
+  public void testDefaultsHaveNoPragmas() {
+    DbTuningProfile profile = DbTuningProfile.defaults();
+
+    assertThat(profile.isWriteAheadLogging(), is(false));
+    assertThat(profile.getPragmas().isEmpty(), is(true));
+  }
+
+  /**
+   * The read optimized preset uses WAL and sets all other values explicitly. The cache size is
+   * given in KiB, which SQLite expects as a negative number.
+   */
+  @Test
+  public void testReadOptimizedPragmas() {
+    DbTuningProfile profile = DbTuningProfile.readOptimized();
+
+    assertThat(profile.isWriteAheadLogging(), is(true));
+    assertThat(profile.getPragmas(), contains(
+        "PRAGMA synchronous = NORMAL",
+        "PRAGMA cache_size = -8192",
+        "PRAGMA mmap_size = 67108864",
+        "PRAGMA temp_store = MEMORY"));
+  }
+
+  /**
+   * The durable preset uses a rollback journal, full synchronous and no memory mapped I/O.
+   */
+  @Test
+  public void testDurablePragmas() {
+    DbTuningProfile profile = DbTuningProfile.durable();
+
+    assertThat(profile.isWriteAheadLogging(), is(false));
+    assertThat(profile.getPragmas(), contains(
+        "PRAGMA synchronous = FULL",
+        "PRAGMA mmap_size = 0"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFactoryFailsOnNullSynchronous() {
+    DbTuningProfile.of(true, null, 0, 0, DbTuningProfile.TempStore.DEFAULT);
+  }
+}
@@ -0,0 +1,198 @@
+package de.hdmstuttgart.zeitfresser.db;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import android.content.Context;
+
+import de.hdmstuttgart.zeitfresser.model.Record;
+import de.hdmstuttgart.zeitfresser.model.Task;
+import de.hdmstuttgart.zeitfresser.model.TaskEvent;
+import de.hdmstuttgart.zeitfresser.model.TaskEventListener;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * A test class for {@link RecordWriteQueue}. The database is mocked, so these tests only check
+ * when and in which order records are handed to {@link DbCalls}.
+ */
+public class RecordWriteQueueTest {
+
+  private static final long LONG_INTERVAL = 60 * 60 * 1000L;
+
+  private Context contextMock;
+  private DbCalls dbCallsMock;
+  private RecordWriteQueue queue;
+
+  /**
+   * Create a queue which never writes because of its flush interval during a test run.
+   */
+  @Before
+  public void setUp() {
+    contextMock = mock(Context.class);
+    dbCallsMock = mock(DbCalls.class);
+    queue = new RecordWriteQueue(contextMock, dbCallsMock, 3, LONG_INTERVAL);
+  }
+
+  @After
+  public void tearDown() {
+    queue.close();
+  }
+
+  /**
+   * Flushing writes all pending records with a single call, in the order they were queued.
+   */
+  @Test
+  public void testFlushWritesPendingRecordsInOrder() {
+    Record first = mock(Record.class);
+    Record second = mock(Record.class);
+    Task task = mock(Task.class);
+
+    queue.enqueue(first, task);
+    queue.enqueue(second, task);
+    assertThat(queue.getQueueDepth(), is(2));
+    verify(dbCallsMock, never()).persistRecords(ArgumentMatchers.<Context>any(),
+        ArgumentMatchers.<Record>anyList(), ArgumentMatchers.<Task>anyList(),
+        ArgumentMatchers.<Task, Long>anyMap());
+
+    queue.flush();
+
+    verify(dbCallsMock).persistRecords(contextMock, Arrays.asList(first, second),
+        Arrays.asList(task, task), Collections.<Task, Long>emptyMap());
+    assertThat(queue.getQueueDepth(), is(0));
+    assertThat(queue.getFlushCount(), is(1L));
+  }
+
+  /**
+   * Reaching the batch size triggers a write without waiting for the flush interval.
+   */
+  @Test
+  public void testFullBatchIsWrittenWithoutFlush() {
+    Record[] records = {mock(Record.class), mock(Record.class), mock(Record.class)};
+    Task task = mock(Task.class);
+
+    for (Record record : records) {
+      queue.enqueue(record, task);
+    }
+
+    verify(dbCallsMock, timeout(5000)).persistRecords(contextMock, Arrays.asList(records),
+        Arrays.asList(task, task, task), Collections.<Task, Long>emptyMap());
+  }
+
+  /**
+   * A switch hands the stopped record and the mark of the started task to the database in one
+   * call, so both are written in the same transaction.
+   */
+  @Test
+  public void testSwitchIsWrittenInOneCall() {
+    Record stopped = mock(Record.class);
+    Task from = mock(Task.class);
+    Task to = mock(Task.class);
+
+    queue.enqueueSwitch(stopped, from, to, 1000L);
+    queue.flush();
+
+    verify(dbCallsMock).persistRecords(contextMock, Collections.singletonList(stopped),
+        Collections.singletonList(from), Collections.singletonMap(to, 1000L));
+  }
+
+  /**
+   * A failing write keeps its records and marks queued in front of newer ones, and the flush
+   * reports the failure.
+   */
+  @Test
+  public void testFailedWriteIsRetried() {
+    Record first = mock(Record.class);
+    Record second = mock(Record.class);
+    Task task = mock(Task.class);
+    Task started = mock(Task.class);
+    doThrow(new IllegalStateException("disk full")).when(dbCallsMock).persistRecords(
+        ArgumentMatchers.<Context>any(), ArgumentMatchers.<Record>anyList(),
+        ArgumentMatchers.<Task>anyList(), ArgumentMatchers.<Task, Long>anyMap());
+
+    queue.enqueue(first, task);
+    queue.enqueueStart(started, 1000L);
+    try {
+      queue.flush();
+      fail("Expected the failed write to be reported");
+    } catch (IllegalStateException ex) {
+      assertThat(queue.getQueueDepth(), is(1));
+    }
+
+    doNothing().when(dbCallsMock).persistRecords(ArgumentMatchers.<Context>any(),
+        ArgumentMatchers.<Record>anyList(), ArgumentMatchers.<Task>anyList(),
+        ArgumentMatchers.<Task, Long>anyMap());
+    queue.enqueue(second, task);
+    queue.flush();
+
+    verify(dbCallsMock).persistRecords(contextMock, Arrays.asList(first, second),
+        Arrays.asList(task, task), Collections.singletonMap(started, 1000L));
+    assertThat(queue.getQueueDepth(), is(0));
+  }
+
+  /**
+   * A started task is marked even if no record is pending.
+   */
+  @Test
+  public void testStartIsWrittenWithoutRecords() {
+    Task task = mock(Task.class);
+
+    queue.enqueueStart(task, 1000L);
+    queue.flush();
+
+    verify(dbCallsMock).persistRecords(contextMock, Collections.<Record>emptyList(),
+        Collections.<Task>emptyList(), Collections.singletonMap(task, 1000L));
+  }
+
+  /**
+   * A listener gets a persisted event for every record once it has been written.
+   */
+  @Test
+  public void testListenerIsNotifiedAboutPersistedRecords() {
+    Record first = mock(Record.class);
+    Record second = mock(Record.class);
+    Task task = mock(Task.class);
+    TaskEventListener listener = mock(TaskEventListener.class);
+    queue.setTaskEventListener(listener);
+
+    queue.enqueue(first, task);
+    queue.enqueue(second, task);
+    verify(listener, never()).onTaskEvent(ArgumentMatchers.<TaskEvent>any(),
+        ArgumentMatchers.<Task>any(), ArgumentMatchers.<Record>any());
+
+    queue.flush();
+
+    verify(listener).onTaskEvent(TaskEvent.PERSISTED, task, first);
+    verify(listener).onTaskEvent(TaskEvent.PERSISTED, task, second);
+  }
+
+  /**
+   * Flushing an empty queue must not touch the database.
+   */
+  @Test
+  public void testFlushEmptyQueue() {
+    queue.flush();
+
+    verify(dbCallsMock, never()).persistRecords(ArgumentMatchers.<Context>any(),
+        ArgumentMatchers.<Record>anyList(), ArgumentMatchers.<Task>anyList(),
+        ArgumentMatchers.<Task, Long>anyMap());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEnqueueFailsOnNullRecord() {
+    queue.enqueue(null, mock(Task.class));
+  }
+}
@@ -0,0 +1,126 @@
+package de.hdmstuttgart.zeitfresser.db;
+
+import static org.junit.Assert.assertEquals;
+
+import de.hdmstuttgart.zeitfresser.Benchmark;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * Compares {@link TimestampCodec} with the former per-row <code>SimpleDateFormat</code> path
+ * (one formatter and one <code>Date</code> per value), for {@value #VALUES} timestamps an
+ * hour apart.
+ */
+public class TimestampCodecBenchmarkTest extends Benchmark {
+
+  private static final String PATTERN = "yyyy-MM-dd'T'HH:mm:ss";
+  private static final int VALUES = 100000;
+  private static final int WARMUP_ROUNDS = 5;
+  private static final int MEASURED_ROUNDS = 10;
+
+  private final TimeZone timeZone = TimeZone.getDefault();
+  private String[] timestamps;
+  private char[][] chars;
+
+  /**
+   * Prepare the input values.
+   */
+  @Before
+  public void setUp() {
+    SimpleDateFormat formatter = new SimpleDateFormat(PATTERN);
+    timestamps = new String[VALUES];
+    chars = new char[VALUES][];
+    long millis = System.currentTimeMillis() - VALUES * 60 * 60 * 1000L;
+    for (int i = 0; i < VALUES; i++) {
+      timestamps[i] = formatter.format(new Date(millis + i * 60 * 60 * 1000L));
+      chars[i] = timestamps[i].toCharArray();
+    }
+  }
+
+  @Test
+  public void benchmarkParse() throws Exception {
+    assertEquals(parseWithSimpleDateFormat(), parseWithCodec());
+
+    long[] nanos = compare(WARMUP_ROUNDS, MEASURED_ROUNDS, new Variant() {
+      @Override
+      public void run() {
+        parseWithSimpleDateFormat();
+      }
+    }, new Variant() {
+      @Override
+      public void run() {
+        parseWithCodec();
+      }
+    });
+
+    reportPerValue("parse", nanos);
+  }
+
+  @Test
+  public void benchmarkFormat() throws Exception {
+    final long[] millis = new long[VALUES];
+    for (int i = 0; i < VALUES; i++) {
+      millis[i] = TimestampCodec.parse(chars[i], 0, chars[i].length, timeZone);
+    }
+
+    long[] nanos = compare(WARMUP_ROUNDS, MEASURED_ROUNDS, new Variant() {
+      @Override
+      public void run() {
+        formatWithSimpleDateFormat(millis);
+      }
+    }, new Variant() {
+      @Override
+      public void run() {
+        formatWithCodec(millis);
+      }
+    });
+
+    reportPerValue("format", nanos);
+  }
+
+  private long parseWithSimpleDateFormat() {
+    long sum = 0;
+    for (String timestamp : timestamps) {
+      SimpleDateFormat formatter = new SimpleDateFormat(PATTERN);
+      sum += formatter.parse(timestamp, new ParsePosition(0)).getTime();
+    }
+    return sum;
+  }
+
+  private long parseWithCodec() {
+    long sum = 0;
+    for (char[] timestamp : chars) {
+      sum += TimestampCodec.parse(timestamp, 0, timestamp.length, timeZone);
+    }
+    return sum;
+  }
+
+  private int formatWithSimpleDateFormat(long[] millis) {
+    int length = 0;
+    for (long value : millis) {
+      SimpleDateFormat formatter = new SimpleDateFormat(PATTERN);
+      length += formatter.format(new Date(value)).length();
+    }
+    return length;
+  }
+
+  private int formatWithCodec(long[] millis) {
+    char[] buffer = new char[TimestampCodec.LENGTH];
+    int length = 0;
+    for (long value : millis) {
+      length += TimestampCodec.format(value, timeZone, buffer, 0);
+    }
+    return length;
+  }
+
+  private void reportPerValue(String operation, long[] nanos) {
+    report(operation + ": SimpleDateFormat " + nanos[0] / VALUES + " ns/value, TimestampCodec "
+        + nanos[1] / VALUES + " ns/value");
+  }
+}
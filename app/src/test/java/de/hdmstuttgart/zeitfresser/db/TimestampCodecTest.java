@@ -0,0 +1,102 @@
+package de.hdmstuttgart.zeitfresser.db;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * A test class for {@link TimestampCodec}. Results are compared with the
+ * {@link SimpleDateFormat} based conversion the codec replaces.
+ */
+public class TimestampCodecTest {
+
+  private static final String PATTERN = "yyyy-MM-dd'T'HH:mm:ss";
+  private static final TimeZone BERLIN = TimeZone.getTimeZone("Europe/Berlin");
+  private static final TimeZone NEW_YORK = TimeZone.getTimeZone("America/New_York");
+
+  private static final String[] TIMESTAMPS = {
+      "1970-01-01T00:00:00",
+      "1969-12-31T23:59:59",
+      "2000-02-29T12:34:56",
+      "2016-03-27T01:59:59",
+      "2016-03-27T03:00:00",
+      "2016-10-30T02:30:00",
+      "2016-12-31T23:59:59",
+      "2100-03-01T00:00:01"
+  };
+
+  /**
+   * Parsing must yield the same instants as <code>SimpleDateFormat</code>, including the days
+   * daylight saving time starts and ends.
+   */
+  @Test
+  public void testParseMatchesSimpleDateFormat() throws Exception {
+    for (TimeZone timeZone : new TimeZone[]{BERLIN, NEW_YORK}) {
+      SimpleDateFormat formatter = formatter(timeZone);
+      for (String timestamp : TIMESTAMPS) {
+        char[] data = timestamp.toCharArray();
+
+        assertThat(timestamp, TimestampCodec.parse(data, 0, data.length, timeZone),
+            is(formatter.parse(timestamp).getTime()));
+      }
+    }
+  }
+
+  /**
+   * Formatting must yield the same text as <code>SimpleDateFormat</code> and write exactly
+   * {@link TimestampCodec#LENGTH} characters at the given offset.
+   */
+  @Test
+  public void testFormatMatchesSimpleDateFormat() throws Exception {
+    char[] buffer = new char[TimestampCodec.LENGTH + 2];
+
+    for (TimeZone timeZone : new TimeZone[]{BERLIN, NEW_YORK}) {
+      SimpleDateFormat formatter = formatter(timeZone);
+      for (String timestamp : TIMESTAMPS) {
+        Date date = formatter.parse(timestamp);
+        int end = TimestampCodec.format(date.getTime(), timeZone, buffer, 2);
+
+        assertThat(end, is(buffer.length));
+        assertThat(new String(buffer, 2, TimestampCodec.LENGTH), is(formatter.format(date)));
+      }
+    }
+  }
+
+  /**
+   * Like <code>SimpleDateFormat.parse(String, ParsePosition)</code>, trailing characters are
+   * ignored.
+   */
+  @Test
+  public void testParseIgnoresTrailingCharacters() {
+    char[] data = "xx2016-12-24T18:00:00.000".toCharArray();
+
+    assertThat(TimestampCodec.parse(data, 2, data.length - 2, BERLIN),
+        is(TimestampCodec.parse("2016-12-24T18:00:00".toCharArray(), 0, 19, BERLIN)));
+  }
+
+  /**
+   * Empty, truncated and malformed input is rejected.
+   */
+  @Test
+  public void testParseRejectsInvalidInput() {
+    String[] invalid = {"", "2016-12-24", "2016-12-24 18:00:00", "2016-13-01T00:00:00",
+        "2016-12-24T24:00:00", "2016-1a-24T18:00:00"};
+
+    for (String timestamp : invalid) {
+      char[] data = timestamp.toCharArray();
+      assertThat(timestamp, TimestampCodec.parse(data, 0, data.length, BERLIN),
+          is(TimestampCodec.INVALID));
+    }
+  }
+
+  private static SimpleDateFormat formatter(TimeZone timeZone) {
+    SimpleDateFormat formatter = new SimpleDateFormat(PATTERN);
+    formatter.setTimeZone(timeZone);
+    return formatter;
+  }
+}
@@ -0,0 +1,58 @@
+package de.hdmstuttgart.zeitfresser.model;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * A test class for {@link EpochDays}.
+ */
+public class EpochDaysTest {
+
+  private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+  private static final TimeZone BERLIN = TimeZone.getTimeZone("Europe/Berlin");
+
+  /**
+   * In UTC, days are plain multiples of 24 hours, including instants before 1970.
+   */
+  @Test
+  public void testDayOfInUtc() {
+    assertThat(EpochDays.dayOf(0, UTC), is(0L));
+    assertThat(EpochDays.dayOf(EpochDays.MILLIS_PER_DAY - 1, UTC), is(0L));
+    assertThat(EpochDays.dayOf(EpochDays.MILLIS_PER_DAY, UTC), is(1L));
+    assertThat(EpochDays.dayOf(-1, UTC), is(-1L));
+  }
+
+  /**
+   * Local midnight starts a new day, not UTC midnight.
+   */
+  @Test
+  public void testDayOfUsesLocalMidnight() {
+    // 1970-01-01 23:30 UTC is already 1970-01-02 00:30 in Berlin
+    long instant = EpochDays.MILLIS_PER_DAY - 30 * 60 * 1000L;
+
+    assertThat(EpochDays.dayOf(instant, UTC), is(0L));
+    assertThat(EpochDays.dayOf(instant, BERLIN), is(1L));
+  }
+
+  /**
+   * <code>startOf()</code> is the inverse of <code>dayOf()</code>, also on days with a DST
+   * change, which are only 23 hours long.
+   */
+  @Test
+  public void testStartOfAcrossDaylightSavingTime() {
+    Calendar calendar = Calendar.getInstance(BERLIN);
+    calendar.clear();
+    calendar.set(2016, Calendar.MARCH, 27);
+    long dstDayStart = calendar.getTimeInMillis();
+    long dstDay = EpochDays.dayOf(dstDayStart, BERLIN);
+
+    assertThat(EpochDays.startOf(dstDay, BERLIN), is(dstDayStart));
+    assertThat(EpochDays.startOf(dstDay + 1, BERLIN) - dstDayStart,
+        is(EpochDays.MILLIS_PER_DAY - 60 * 60 * 1000L));
+  }
+}
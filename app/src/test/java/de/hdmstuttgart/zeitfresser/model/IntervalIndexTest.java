@@ -0,0 +1,119 @@
+package de.hdmstuttgart.zeitfresser.model;
+
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A test class for {@link IntervalIndex}.
+ */
+public class IntervalIndexTest {
+
+  /**
+   * Records are half open: a record is running from its start on, but not at its end anymore.
+   */
+  @Test
+  public void testRecordsAtBoundaries() {
+    Task task = Task.withName("Sport");
+    task.addRecord(Record.fromMillis(1, 1000L, 2000L));
+    task.addRecord(Record.fromMillis(2, 2000L, 3000L));
+
+    IntervalIndex index = IntervalIndex.fromTask(task);
+
+    assertThat(index.getRecordsAt(999L), is(empty()));
+    assertThat(index.getRecordsAt(1000L),
+        equalTo(Collections.singletonList(Record.fromMillis(1, 1000L, 2000L))));
+    assertThat(index.getRecordsAt(2000L),
+        equalTo(Collections.singletonList(Record.fromMillis(2, 2000L, 3000L))));
+    assertThat(index.getRecordsAt(3000L), is(empty()));
+    assertThat(index.getRecordsOverlapping(1500L, 2500L).size(), is(2));
+    assertThat(index.getRecordsOverlapping(3000L, 4000L), is(empty()));
+  }
+
+  /**
+   * Running records are open ended, records which haven't been started aren't indexed at all.
+   */
+  @Test
+  public void testRunningAndUnstartedRecords() {
+    Task task = Task.withName("Sleep");
+    task.addRecord(Record.fromMillis(1, Record.UNSET, Record.UNSET));
+    task.addRecord(Record.fromMillis(2, 1000L, Record.UNSET));
+
+    IntervalIndex index = IntervalIndex.fromTask(task);
+
+    assertThat(index.size(), is(1));
+    assertThat(index.getRecordsAt(Long.MAX_VALUE),
+        equalTo(Collections.singletonList(Record.fromMillis(2, 1000L, Record.UNSET))));
+    assertThat(index.getTasksAt(1000L), equalTo(Collections.singletonList(task)));
+  }
+
+  /**
+   * Every task running at a point in time is reported once, in the order the tasks have been
+   * indexed.
+   */
+  @Test
+  public void testTasksAtOverAllTasks() {
+    Task sport = Task.withName("Sport");
+    sport.addRecord(Record.fromMillis(1, 1000L, 5000L));
+    sport.addRecord(Record.fromMillis(2, 3000L, 4000L));
+    Task sleep = Task.withName("Sleep");
+    sleep.addRecord(Record.fromMillis(3, 3500L, 6000L));
+    Task work = Task.withName("Work");
+
+    IntervalIndex index = IntervalIndex.fromTasks(Arrays.asList(sleep, work, sport));
+
+    assertThat(index.getTasksAt(3500L), equalTo(Arrays.asList(sleep, sport)));
+    assertThat(index.getTasksAt(5500L), equalTo(Collections.singletonList(sleep)));
+    assertThat(index.getTasksOverlapping(0L, 1001L), equalTo(Collections.singletonList(sport)));
+    assertThat(index.getTasksOverlapping(6000L, 7000L), is(empty()));
+  }
+
+  /**
+   * The index finds the same records a scan over all of them finds.
+   */
+  @Test
+  public void testQueriesMatchScan() {
+    Random random = new Random(42);
+    Task task = Task.withName("Random");
+    List<Record> records = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      long start = random.nextInt(100000);
+      long end = random.nextInt(20) == 0 ? Record.UNSET : start + random.nextInt(5000);
+      Record record = Record.fromMillis(i, start, end);
+      records.add(record);
+      task.addRecord(record);
+    }
+    IntervalIndex index = IntervalIndex.fromTask(task);
+
+    for (int i = 0; i < 200; i++) {
+      long from = random.nextInt(110000) - 5000;
+      long until = from + random.nextInt(3000);
+
+      List<Record> expected = new ArrayList<>();
+      for (Record record : records) {
+        long end = record.getEndMillis() == Record.UNSET ? Long.MAX_VALUE : record.getEndMillis();
+        if (record.getStartMillis() < until && end > from) {
+          expected.add(record);
+        }
+      }
+
+      List<Record> actual = index.getRecordsOverlapping(from, until);
+      assertThat(actual.size(), is(expected.size()));
+      assertThat(actual.containsAll(expected), is(true));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFromTasksThrowsExceptionOnNullArg() {
+    IntervalIndex.fromTasks(null);
+  }
+}
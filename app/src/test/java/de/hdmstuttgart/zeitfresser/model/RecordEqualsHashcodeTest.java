@@ -6,8 +6,6 @@ import static org.junit.Assert.assertThat;
 import org.junit.Before;
 import org.junit.Test;
 
-import java.util.Date;
-
 /**
  * In order to test {@link Record#equals(Object)} method, the possible argument values can be
  * divided into the following equivalence classes:
@@ -16,9 +14,9 @@ import java.util.Date;
  * <li>Equivalence class 1: <code>null</code> (-> false)</li>
  * <li>Equivalence class 2: <code>this</code> (-> true)</li>
  * <li>Equivalence class 3: <code>!(other instanceOf Record) (-> false)</code></li>
- * <li>Equivalence class 4: <code>!(this.getStart().equals(other.getStart())) (-> false)
- * </code></li>
- * <li>Equivalence class 5: <code>!(this.getEnd().equals(other.getEnd()))</code> (-> false)</li>
+ * <li>Equivalence class 4: <code>this.getStartMillis() != other.getStartMillis()</code> (-> false)
+ * </li>
+ * <li>Equivalence class 5: <code>this.getEndMillis() != other.getEndMillis()</code> (-> false)</li>
  * <li>Equivalence class 6: <code>this.getId() != other.getId()</code> (-> false)</li>
  * <li>Equivalence class 7: A record instances with same property values and a memory
  * address different from <code>this</code> (-> true)</li>
@@ -40,8 +38,8 @@ public class RecordEqualsHashcodeTest extends RecordBaseTest {
   public void setUp() throws Exception {
     super.setUp();
 
-    Date start = new Date();
-    Date end = new Date(start.getTime() + 100000);
+    long start = System.currentTimeMillis();
+    long end = start + 100000;
 
     setRecordFieldValue(record, "start", start);
     setRecordFieldValue(record, "end", end);
@@ -92,7 +90,7 @@ public class RecordEqualsHashcodeTest extends RecordBaseTest {
    */
   @Test
   public void testEqualsReturnsFalseOnDifferentStartVal() throws Exception {
-    setRecordFieldValue(otherRecord, "start", null);
+    setRecordFieldValue(otherRecord, "start", Record.UNSET);
     boolean equals = record.equals(otherRecord);
 
     assertThat(equals, is(false));
@@ -108,7 +106,7 @@ public class RecordEqualsHashcodeTest extends RecordBaseTest {
    */
   @Test
   public void testEqualsReturnsFalseOnDifferentEndVal() throws Exception {
-    setRecordFieldValue(otherRecord, "end", null);
+    setRecordFieldValue(otherRecord, "end", Record.UNSET);
     boolean equals = record.equals(otherRecord);
 
     assertThat(equals, is(false));
@@ -180,7 +178,7 @@ public class RecordEqualsHashcodeTest extends RecordBaseTest {
    */
   @Test
   public void testRecordsWithDifferentStartValProduceDifferentHashCodes() throws Exception {
-    setRecordFieldValue(otherRecord, "start", new Date(otherRecord.getStart().getTime() + 100));
+    setRecordFieldValue(otherRecord, "start", otherRecord.getStartMillis() + 100);
     int hashcodeA = record.hashCode();
     int hashcodeB = otherRecord.hashCode();
 
@@ -195,7 +193,7 @@ public class RecordEqualsHashcodeTest extends RecordBaseTest {
    */
   @Test
   public void testRecordsWithDifferentEndValProduceDifferentHashCodes() throws Exception {
-    setRecordFieldValue(otherRecord, "end", new Date(otherRecord.getEnd().getTime() + 100));
+    setRecordFieldValue(otherRecord, "end", otherRecord.getEndMillis() + 100);
     int hashcodeA = record.hashCode();
     int hashcodeB = otherRecord.hashCode();
 
@@ -0,0 +1,147 @@
+package de.hdmstuttgart.zeitfresser.model;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A test class for {@link RecordStore}.
+ */
+public class RecordStoreTest {
+
+  private RecordStore store;
+
+  @Before
+  public void setUp() {
+    store = new RecordStore(2);
+  }
+
+  /**
+   * Records added out of order are read back ordered by start, records with equal starts keep
+   * the order they have been added in. Adding more records than the initial capacity grows the
+   * store.
+   */
+  @Test
+  public void testOutOfOrderAddsAreReadInStartOrder() {
+    store.add(Record.fromMillis(1, 3000L, 3500L));
+    store.add(Record.fromMillis(2, 1000L, 1500L));
+    store.add(Record.fromMillis(3, 2000L, 2500L));
+    store.add(Record.fromMillis(4, 1000L, 1200L));
+
+    assertThat(store.size(), is(4));
+    assertThat(store.getId(0), is(2L));
+    assertThat(store.getId(1), is(4L));
+    assertThat(store.getId(2), is(3L));
+    assertThat(store.getId(3), is(1L));
+    assertThat(store.get(3), equalTo(Record.fromMillis(1, 3000L, 3500L)));
+    assertThat(store.getTotalDuration(), is(1700L));
+  }
+
+  /**
+   * The range checks compare strictly and ignore records which haven't been started.
+   */
+  @Test
+  public void testStartRangeChecks() {
+    store.add(Record.fromMillis(1, Record.UNSET, Record.UNSET));
+    store.add(Record.fromMillis(2, 2000L, 3000L));
+
+    assertThat(store.hasStartBefore(2000L), is(false));
+    assertThat(store.hasStartBefore(2001L), is(true));
+    assertThat(store.hasStartAfter(2000L), is(false));
+    assertThat(store.hasStartAfter(1999L), is(true));
+    assertThat(new RecordStore().hasStartBefore(Long.MAX_VALUE), is(false));
+    assertThat(new RecordStore().hasStartAfter(Long.MIN_VALUE), is(false));
+  }
+
+  /**
+   * A record added while running gets its end once it has been stopped.
+   */
+  @Test
+  public void testUpdateEndOfRunningRecord() {
+    Record record = Record.create();
+    record.start();
+    store.add(record);
+    record.stop();
+
+    assertThat(store.getDurationBetween(Long.MIN_VALUE, Long.MAX_VALUE), is(0L));
+    assertThat(store.contains(record), is(false));
+    assertThat(store.updateEnd(record), is(true));
+    assertThat(store.contains(record), is(true));
+    assertThat(store.updateEnd(record), is(false));
+    assertThat(store.getDurationBetween(Long.MIN_VALUE, Long.MAX_VALUE),
+        is(record.getDuration()));
+  }
+
+  /**
+   * Only the part of a record inside the window counts, running records don't count at all.
+   */
+  @Test
+  public void testDurationBetweenClipsRecordsToWindow() {
+    store.add(Record.fromMillis(1, 1000L, 2000L));
+    store.add(Record.fromMillis(2, 3000L, 5000L));
+    store.add(Record.fromMillis(3, 6000L, 9000L));
+    store.add(Record.fromMillis(4, 10000L, Record.UNSET));
+
+    assertThat(store.getDurationBetween(1500L, 7000L), is(3500L));
+    assertThat(store.getDurationBetween(3500L, 4000L), is(500L));
+    assertThat(store.getDurationBetween(2000L, 3000L), is(0L));
+    assertThat(store.getDurationBetween(9000L, 20000L), is(0L));
+    assertThat(store.getDurationBetween(Long.MIN_VALUE, Long.MAX_VALUE), is(6000L));
+    assertThat(store.getDurationBetween(7000L, 1500L), is(0L));
+  }
+
+  /**
+   * Overlapping records are clipped one by one, so all of them count.
+   */
+  @Test
+  public void testDurationBetweenWithOverlappingRecords() {
+    store.add(Record.fromMillis(1, 1000L, 5000L));
+    store.add(Record.fromMillis(2, 2000L, 3000L));
+
+    assertThat(store.getDurationBetween(2500L, 4500L), is(2500L));
+  }
+
+  /**
+   * A copy keeps the records it has been taken with, no matter whether the original appends
+   * records, stops a running one or is sorted afterwards, and the other way around.
+   */
+  @Test
+  public void testCopyIsIndependent() {
+    Record running = Record.fromMillis(2, 2000L, Record.UNSET);
+    store.add(Record.fromMillis(1, 1000L, 1500L));
+    store.add(running);
+
+    RecordStore copy = store.copy();
+    store.add(Record.fromMillis(3, 3000L, 3500L));
+    store.updateEnd(Record.fromMillis(2, 2000L, 2800L));
+    store.add(Record.fromMillis(4, 500L, 600L));
+    copy.add(Record.fromMillis(5, 4000L, 4100L));
+
+    assertThat(copy.size(), is(3));
+    assertThat(copy.get(1), equalTo(running));
+    assertThat(copy.getTotalDuration(), is(600L));
+    assertThat(store.size(), is(4));
+    assertThat(store.getId(0), is(4L));
+    assertThat(store.getEnd(2), is(2800L));
+    assertThat(store.getTotalDuration(), is(1900L));
+  }
+
+  /**
+   * Stores are equal if they contain the same records, no matter in which order these were
+   * added.
+   */
+  @Test
+  public void testEqualsIgnoresAddOrder() {
+    RecordStore other = new RecordStore();
+    store.add(Record.fromMillis(1, 1000L, 1500L));
+    store.add(Record.fromMillis(2, 2000L, 2500L));
+    other.add(Record.fromMillis(2, 2000L, 2500L));
+    other.add(Record.fromMillis(1, 1000L, 1500L));
+
+    assertThat(store.equals(other), is(true));
+    assertThat(store.hashCode(), is(other.hashCode()));
+  }
+}
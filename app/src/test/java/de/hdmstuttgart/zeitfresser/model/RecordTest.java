@@ -144,19 +144,76 @@ public class RecordTest extends RecordBaseTest {
 
   /**
    * If a new instance is created from the factory method with a DB-Cursor as parameter, the
-   * title should fit the one from the DB.
+   * start date should fit the epoch milliseconds stored in the DB.
    */
   @Test
   public void testFactoryFromCursor() throws ParseException {
     SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
-    String start = "2017-02-12T12:00:00";
-    Date startDate = formatter.parse(start);
+    Date startDate = formatter.parse("2017-02-12T12:00:00");
 
     Cursor cursorMock = mock(Cursor.class);
-    when(cursorMock.getString(cursorMock.getColumnIndexOrThrow(DbStatements.COLUMN_NAME_START)))
-        .thenReturn(start);
+    when(cursorMock.getLong(cursorMock.getColumnIndexOrThrow(DbStatements.COLUMN_NAME_START)))
+        .thenReturn(startDate.getTime());
     Record record = Record.fromCursor(cursorMock);
 
     assertEquals(startDate, record.getStart());
   }
+
+  /**
+   * Records without a stored start or end date (NULL columns) are expected to come back with
+   * <code>null</code> dates instead of the epoch.
+   */
+  @Test
+  public void testFactoryFromCursorWithNullColumns() {
+    Cursor cursorMock = mock(Cursor.class);
+    when(cursorMock.isNull(cursorMock.getColumnIndexOrThrow(DbStatements.COLUMN_NAME_START)))
+        .thenReturn(true);
+    Record record = Record.fromCursor(cursorMock);
+
+    assertThat(record.getStart(), nullValue());
+    assertThat(record.getEnd(), nullValue());
+    assertThat(record.getStartMillis(), is(Record.UNSET));
+    assertThat(record.getEndMillis(), is(Record.UNSET));
+  }
+
+  /**
+   * A record created from epoch milliseconds reports the same values through the primitive
+   * getters and the {@link Date} adapters.
+   */
+  @Test
+  public void testFactoryFromMillis() {
+    Record record = Record.fromMillis(7, 1000L, 4000L);
+
+    assertThat(record.getId(), is(7L));
+    assertThat(record.getStartMillis(), is(1000L));
+    assertThat(record.getEndMillis(), is(4000L));
+    assertEquals(new Date(1000L), record.getStart());
+    assertEquals(new Date(4000L), record.getEnd());
+    assertThat(record.getDuration(), is(3000L));
+  }
+
+  /**
+   * A record must not end before it has started.
+   */
+  /**
+   * Stopping at the current time after the clock has been set back ends the record at its
+   * start.
+   */
+  @Test
+  public void testStopWithClockSetBack() {
+    Record record = Record.create();
+    long start = System.currentTimeMillis() + 60 * 60 * 1000L;
+    record.start(start);
+    record.stop();
+
+    assertThat(record.getEndMillis(), is(start));
+    assertThat(record.getDuration(), is(0L));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testStopBeforeStartFails() {
+    Record record = Record.create();
+    record.start(2000L);
+    record.stop(1000L);
+  }
 }
@@ -4,8 +4,6 @@ import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import android.database.Cursor;
@@ -15,9 +13,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.lang.reflect.Field;
-import java.util.Arrays;
 import java.util.Date;
-import java.util.LinkedList;
 
 /**
  * A test class for {@link Task} that focuses on behavior tests.
@@ -29,55 +25,39 @@ public class TaskBehaviorTest extends TaskBaseTest {
 
   private Date testDate;
 
-  private Record testRecordA;
-  private Record testRecordB;
-
   @Override
   @Before
   public void setUp() throws Exception {
     super.setUp();
 
     testDate = new Date();
-    testRecordA = mock(Record.class);
-    testRecordB = mock(Record.class);
-
-
-    Field records = getFieldFromTestClass("records");
-    records.set(classUnderTest, Arrays.asList(testRecordA, testRecordB));
   }
 
   /**
-   * Verify that {@link Task#hasRecordsAfter(Date)} calls {@link Record#getStart()} on the record
-   * mocks and returns <code>false</code> for a task which has no record starting after
-   * <code>testDate</code>.
+   * Verify that {@link Task#hasRecordsAfter(Date)} returns <code>false</code> for a task which
+   * has no record starting after <code>testDate</code>.
    */
   @Test
-  public void testTaskHasNoRecordAfter() {
-    when(testRecordA.getStart()).thenReturn(new Date(testDate.getTime()));
-    when(testRecordB.getStart()).thenReturn(new Date(testDate.getTime()));
+  public void testTaskHasNoRecordAfter() throws Exception {
+    setRecords(recordStartingAt(testDate.getTime()), recordStartingAt(testDate.getTime()));
 
     boolean result = classUnderTest.hasRecordsAfter(testDate);
 
-    verify(testRecordA, times(1)).getStart();
-    verify(testRecordB, times(1)).getStart();
     assertThat("Task must not have any records after 'currentDate'!",
         result, is(false));
   }
 
   /**
-   * Verify that {@link Task#hasRecordsAfter(Date)} calls {@link Record#getStart()} on the record
-   * mocks and returns <code>true</code> for a task which has at least a single record starting
-   * after <code>testDate</code>.
+   * Verify that {@link Task#hasRecordsAfter(Date)} returns <code>true</code> for a task which has
+   * at least a single record starting after <code>testDate</code>, regardless of the order the
+   * records have been added in.
    */
   @Test
   public void testTaskHasRecordAfter() throws Exception {
-    when(testRecordA.getStart()).thenReturn(new Date(testDate.getTime()));
-    when(testRecordB.getStart()).thenReturn(new Date(testDate.getTime() + 1000));
+    setRecords(recordStartingAt(testDate.getTime() + 1000), recordStartingAt(testDate.getTime()));
 
     boolean result = classUnderTest.hasRecordsAfter(testDate);
 
-    verify(testRecordA, times(1)).getStart();
-    verify(testRecordB, times(1)).getStart();
     assertThat("Task must have any records after 'currentDate'!",
         result, is(true));
   }
@@ -93,50 +73,54 @@ public class TaskBehaviorTest extends TaskBaseTest {
     expectedException.expectMessage("Argument for param 'date' must not be null!");
 
     classUnderTest.hasRecordsAfter(null);
-
-    verify(testRecordA, times(0)).getStart();
-    verify(testRecordB, times(0)).getStart();
   }
 
 
   /**
-   * Verify that {@link Task#hasRecordsBefore(Date)} calls {@link Record#getStart()} on the
-   * record mocks and returns <code>true</code> for a task which has at least a single record
-   * starting before <code>testDate</code>.
+   * Verify that {@link Task#hasRecordsBefore(Date)} returns <code>true</code> for a task which
+   * has at least a single record starting before <code>testDate</code>.
    */
   @Test
   public void testTaskHasRecordBefore() throws Exception {
-    when(testRecordA.getStart()).thenReturn(new Date(testDate.getTime()));
-    when(testRecordB.getStart()).thenReturn(new Date(testDate.getTime() - 10000));
+    setRecords(recordStartingAt(testDate.getTime()), recordStartingAt(testDate.getTime() - 10000));
 
     boolean result = classUnderTest.hasRecordsBefore(testDate);
 
-    verify(testRecordA, times(1)).getStart();
-    verify(testRecordB, times(1)).getStart();
     assertThat("Task must have any record with start date before 'currentDate'!",
         result, is(true));
   }
 
 
   /**
-   * Verify that {@link Task#hasRecordsBefore(Date)} calls {@link Record#getStart()} on the
-   * record mocks and returns <code>false</code> for a task which does not have at least a single
-   * record starting after <code>testDate</code>.
+   * Verify that {@link Task#hasRecordsBefore(Date)} returns <code>false</code> for a task which
+   * does not have at least a single record starting before <code>testDate</code>.
    */
   @Test
   public void testTaskHasNoRecordBefore() throws Exception {
-    when(testRecordA.getStart()).thenReturn(new Date(testDate.getTime()));
-    when(testRecordB.getStart()).thenReturn(new Date(testDate.getTime()));
+    setRecords(recordStartingAt(testDate.getTime()), recordStartingAt(testDate.getTime()));
 
     boolean result = classUnderTest.hasRecordsBefore(testDate);
 
-    verify(testRecordA, times(1)).getStart();
-    verify(testRecordB, times(1)).getStart();
     assertThat("Task must not have any record with start date before 'currentDate'!",
         result, is(false));
   }
 
 
+  /**
+   * Verify that {@link Task#hasRecordsBefore(Date)} ignores records which haven't been started
+   * yet and therefore have no start at all.
+   */
+  @Test
+  public void testTaskHasNoRecordBeforeWithUnstartedRecord() throws Exception {
+    setRecords(recordStartingAt(Record.UNSET), recordStartingAt(testDate.getTime()));
+
+    boolean result = classUnderTest.hasRecordsBefore(testDate);
+
+    assertThat("Unstarted records must not count as starting before 'currentDate'!",
+        result, is(false));
+  }
+
+
   /**
    * Verify that {@link Task#hasRecordsBefore(Date)} throws an {@link IllegalArgumentException}
    * in case <code>null</code> is passed in as an argument.
@@ -147,41 +131,104 @@ public class TaskBehaviorTest extends TaskBaseTest {
     expectedException.expectMessage("Argument for param 'date' must not be null!");
 
     classUnderTest.hasRecordsBefore(null);
-
-    verify(testRecordA, times(0)).getStart();
-    verify(testRecordB, times(0)).getStart();
   }
 
 
   /**
-   * Verify that {@link Task#getOverallDuration()} sums up the durations of individual records
-   * properly.
+   * Verify that {@link Task#getOverallDurationMillis()} sums up the durations of individual
+   * records properly.
    */
   @Test
   public void testComputeOverallDurationWithRecords() throws Exception {
-    when(testRecordA.getDuration()).thenReturn(1000L);
-    when(testRecordB.getDuration()).thenReturn(2000L);
+    long start = testDate.getTime();
+    setRecords(Record.fromMillis(1, start, start + 1000), Record.fromMillis(2, start + 5000,
+        start + 7000));
 
-    float duration = classUnderTest.getOverallDuration();
+    long duration = classUnderTest.getOverallDurationMillis();
 
-    verify(testRecordA, times(1)).getDuration();
-    verify(testRecordB, times(1)).getDuration();
-    assertThat(duration, is(3000f));
+    assertThat(duration, is(3000L));
   }
 
 
   /**
-   * Verify that {@link Task#getOverallDuration()} returns 0 as total duration for tasks with no
-   * records.
+   * Verify that {@link Task#getOverallDurationMillis()} returns 0 as total duration for tasks
+   * with no records.
    */
   @Test
   public void testComputeOverallDurationWithoutAnyRecord() throws Exception {
     clearRecords();
-    float duration = classUnderTest.getOverallDuration();
+    long duration = classUnderTest.getOverallDurationMillis();
+
+    assertThat(duration, is(0L));
+  }
+
+
+  /**
+   * Verify that {@link Task#getOverallDurationMillis()} stays exact beyond 2^24 ms, where the
+   * float returned by {@link Task#getOverallDuration()} starts to round.
+   */
+  @Test
+  public void testOverallDurationIsExactForLongTasks() throws Exception {
+    long start = testDate.getTime();
+    long fiveHours = 5 * 60 * 60 * 1000L;
+    setRecords(Record.fromMillis(1, start, start + fiveHours + 1));
+
+    assertThat(classUnderTest.getOverallDurationMillis(), is(fiveHours + 1));
+  }
+
+
+  /**
+   * Verify that the duration of a record counts towards the total once the task is stopped, and
+   * not while it is still running.
+   */
+  @Test
+  public void testOverallDurationFollowsStop() throws Exception {
+    clearRecords();
+    classUnderTest.start();
+
+    assertThat(classUnderTest.getOverallDurationMillis(), is(0L));
+
+    Record record = classUnderTest.getActiveRecord();
+    classUnderTest.stop();
+
+    assertThat(classUnderTest.getOverallDurationMillis(), is(record.getDuration()));
+  }
+
+
+  /**
+   * If the clock has been set back since a task was started, stopping it must still work and
+   * leaves an empty record, so the task can't get stuck in active state.
+   */
+  @Test
+  public void testStopTaskStartedInTheFuture() throws Exception {
+    clearRecords();
+    long start = System.currentTimeMillis() + 60 * 60 * 1000L;
+    classUnderTest.start(start);
+    Record record = classUnderTest.getActiveRecord();
 
-    assertThat(duration, is(0f));
+    assertThat(classUnderTest.stop(), is(record));
+
+    assertThat(classUnderTest.isActive(), is(false));
+    assertThat(record.getEndMillis(), is(start));
+    assertThat(classUnderTest.getOverallDurationMillis(), is(0L));
   }
 
+  /**
+   * An explicitly given end before the start is rejected, and the task keeps running.
+   */
+  @Test
+  public void testStopAtTimeBeforeStartFails() throws Exception {
+    clearRecords();
+    classUnderTest.start(2000L);
+
+    try {
+      classUnderTest.stop(1000L);
+    } catch (IllegalArgumentException ex) {
+      assertThat(classUnderTest.isActive(), is(true));
+      return;
+    }
+    throw new AssertionError("Stopping before the start must fail!");
+  }
 
   /**
    * If a new instance is created from the factory method with a DB-Cursor as parameter, the
@@ -204,7 +251,18 @@ public class TaskBehaviorTest extends TaskBaseTest {
 
   private void clearRecords() throws Exception {
     Field records = getFieldFromTestClass("records");
-    records.set(classUnderTest, new LinkedList<>());
+    records.set(classUnderTest, new RecordStore());
+  }
+
+  private void setRecords(Record... records) throws Exception {
+    clearRecords();
+    for (Record record : records) {
+      classUnderTest.addRecord(record);
+    }
+  }
+
+  private static Record recordStartingAt(long start) {
+    return Record.fromMillis(0, start, Record.UNSET);
   }
 
 
@@ -0,0 +1,123 @@
+package de.hdmstuttgart.zeitfresser.model;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A stress test for the start/stop state machine of {@link Task}: many threads start and stop
+ * the same task at once, afterwards every successful start must have left exactly one record
+ * and every successful stop must have handed out a different one.
+ */
+public class TaskConcurrencyTest {
+
+  private static final int THREADS = 8;
+  private static final int ITERATIONS = 2000;
+
+  /**
+   * Concurrent starts and stops neither lose nor duplicate records.
+   */
+  @Test
+  public void testConcurrentStartStopKeepsRecordsConsistent() throws Exception {
+    final Task task = Task.withName("Contended");
+    final AtomicInteger starts = new AtomicInteger();
+    final ConcurrentLinkedQueue<Record> stopped = new ConcurrentLinkedQueue<>();
+
+    runConcurrently(new Runnable() {
+      @Override
+      public void run() {
+        for (int i = 0; i < ITERATIONS; i++) {
+          try {
+            task.start();
+            starts.incrementAndGet();
+          } catch (IllegalStateException ex) {
+            // another thread has won the transition
+          }
+          try {
+            stopped.add(task.stop());
+          } catch (IllegalStateException ex) {
+            // another thread has won the transition
+          }
+        }
+      }
+    });
+
+    if (task.isActive()) {
+      stopped.add(task.stop());
+    }
+
+    Set<Record> distinct = Collections.newSetFromMap(new IdentityHashMap<Record, Boolean>());
+    distinct.addAll(stopped);
+    assertThat("Every stop must hand out a different record!",
+        distinct.size(), is(stopped.size()));
+    assertThat("Every start must be stopped exactly once!", stopped.size(), is(starts.get()));
+    assertThat("Every start must leave exactly one record!",
+        task.getRecordCount(), is(starts.get()));
+    for (Record record : stopped) {
+      assertThat("Stopped records must be present in the record list!",
+          task.records.contains(record), is(true));
+    }
+    assertThat(task.hasActiveRecord(), is(false));
+  }
+
+  /**
+   * Tasks created concurrently get distinct ids.
+   */
+  @Test
+  public void testConcurrentlyCreatedTasksGetDistinctIds() throws Exception {
+    final List<Task> tasks = new CopyOnWriteArrayList<>();
+
+    runConcurrently(new Runnable() {
+      @Override
+      public void run() {
+        for (int i = 0; i < ITERATIONS; i++) {
+          tasks.add(Task.withName("Task"));
+        }
+      }
+    });
+
+    Set<Long> ids = new HashSet<>();
+    for (Task task : tasks) {
+      ids.add(task.getId());
+    }
+    assertThat(ids.size(), is(THREADS * ITERATIONS));
+  }
+
+  private static void runConcurrently(final Runnable work) throws InterruptedException {
+    final CountDownLatch ready = new CountDownLatch(1);
+    final ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+    Thread[] threads = new Thread[THREADS];
+
+    for (int i = 0; i < THREADS; i++) {
+      threads[i] = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            ready.await();
+            work.run();
+          } catch (Throwable ex) {
+            failures.add(ex);
+          }
+        }
+      });
+      threads[i].start();
+    }
+
+    ready.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertThat("Worker threads must not fail: " + failures, failures.isEmpty(), is(true));
+  }
+}
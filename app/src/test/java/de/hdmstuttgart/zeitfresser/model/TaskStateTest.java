@@ -4,7 +4,6 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertThat;
-import static org.mockito.Mockito.mock;
 
 import org.junit.Test;
 
@@ -12,7 +11,6 @@ import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Date;
-import java.util.List;
 
 
 /**
@@ -69,7 +67,7 @@ public class TaskStateTest extends TaskBaseTest {
     classUnderTest.start();
 
     Field recordsField = getFieldFromTestClass("records");
-    final List<Record> records = (List<Record>) recordsField.get(classUnderTest);
+    final RecordStore records = (RecordStore) recordsField.get(classUnderTest);
 
     Field activeRecordField = getFieldFromTestClass("activeRecord");
     final Record activeRecord = (Record) activeRecordField.get(classUnderTest);
@@ -106,7 +104,7 @@ public class TaskStateTest extends TaskBaseTest {
     classUnderTest.start();
 
     Field recordsField = getFieldFromTestClass("records");
-    List<Record> records = (List<Record>) recordsField.get(classUnderTest);
+    RecordStore records = (RecordStore) recordsField.get(classUnderTest);
 
     Field activeRecordField = getFieldFromTestClass("activeRecord");
     final Record activeRecord = (Record) activeRecordField.get(classUnderTest);
@@ -130,15 +128,17 @@ public class TaskStateTest extends TaskBaseTest {
    * <li>It must be in inactive state.</li>
    * <li>It must at least contain a single record.</li>
    * <li>It must not have an active record.</li>
+   * <li>The stopped record, including its end, must be present in the record list.</li>
    * </ul>
    */
   @Test
   public void testStopActiveTask() throws Exception {
     classUnderTest.start();
+    Record stoppedRecord = classUnderTest.getActiveRecord();
     classUnderTest.stop();
 
     Field recordsField = getFieldFromTestClass("records");
-    List<Record> records = (List<Record>) recordsField.get(classUnderTest);
+    RecordStore records = (RecordStore) recordsField.get(classUnderTest);
 
     assertThat("Stopped task must be inactive!", classUnderTest.isActive(), is(false));
     assertThat("Stopped task must have any records!",
@@ -146,6 +146,8 @@ public class TaskStateTest extends TaskBaseTest {
     assertThat("Stopped task must have a single record!", records.size(), is(1));
     assertThat("Stopped task must not have an active record!",
         classUnderTest.hasActiveRecord(), is(false));
+    assertThat("Stopped record must be present in record list!",
+        records.contains(stoppedRecord), is(true));
   }
 
   /**
@@ -170,7 +172,7 @@ public class TaskStateTest extends TaskBaseTest {
     classUnderTest.stop();
 
     Field recordsField = getFieldFromTestClass("records");
-    List<Record> records = (List<Record>) recordsField.get(classUnderTest);
+    RecordStore records = (RecordStore) recordsField.get(classUnderTest);
 
     assertThat("Inactive task must still be inactive!", classUnderTest.isActive(), is(false));
     assertThat("Inactive task must have any records!",
@@ -223,7 +225,7 @@ public class TaskStateTest extends TaskBaseTest {
     classUnderTest.start();
 
     Field recordsField = getFieldFromTestClass("records");
-    List<Record> records = (List<Record>) recordsField.get(classUnderTest);
+    RecordStore records = (RecordStore) recordsField.get(classUnderTest);
 
     Field activeRecordField = getFieldFromTestClass("activeRecord");
     final Record activeRecord = (Record) activeRecordField.get(classUnderTest);
@@ -259,13 +261,13 @@ public class TaskStateTest extends TaskBaseTest {
    */
   @Test
   public void testAddValidRecord() throws Exception {
-    Record recordMock = mock(Record.class);
+    Record record = Record.fromMillis(1, 1000L, 2000L);
 
-    classUnderTest.addRecord(recordMock);
+    classUnderTest.addRecord(record);
 
     Field recordsField = getFieldFromTestClass("records");
-    List<Record> records = (List<Record>) recordsField.get(classUnderTest);
-    assertThat(records.contains(recordMock), is(true));
+    RecordStore records = (RecordStore) recordsField.get(classUnderTest);
+    assertThat(records.contains(record), is(true));
   }
 
   /**
@@ -287,7 +289,7 @@ public class TaskStateTest extends TaskBaseTest {
     }
 
     Field recordsField = getFieldFromTestClass("records");
-    List<Record> records = (List<Record>) recordsField.get(classUnderTest);
+    RecordStore records = (RecordStore) recordsField.get(classUnderTest);
 
     assertThat(records.size(), equalTo(0));
   }
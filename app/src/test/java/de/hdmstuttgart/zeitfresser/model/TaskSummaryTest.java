@@ -0,0 +1,69 @@
+package de.hdmstuttgart.zeitfresser.model;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import android.database.Cursor;
+
+import org.junit.Test;
+
+/**
+ * A test class for {@link TaskSummary}.
+ */
+public class TaskSummaryTest {
+
+  /**
+   * A summary built from a task must carry the task's id, name and overall duration.
+   */
+  @Test
+  public void testFactoryFromTask() {
+    Task task = mock(Task.class);
+    when(task.getId()).thenReturn(7L);
+    when(task.getName()).thenReturn("Sport");
+    when(task.getOverallDurationMillis()).thenReturn(3600000L);
+
+    TaskSummary summary = TaskSummary.fromTask(task);
+
+    assertThat(summary.getId(), is(7L));
+    assertThat(summary.getName(), is("Sport"));
+    assertThat(summary.getTotalMillis(), is(3600000L));
+  }
+
+  /**
+   * Passing <code>null</code> to <code>fromTask()</code> must fail.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testFactoryFromTaskFailsOnNullArg() {
+    TaskSummary.fromTask(null);
+  }
+
+  /**
+   * A summary read from a cursor must use the given column indices.
+   */
+  @Test
+  public void testFactoryFromCursor() {
+    Cursor cursor = mock(Cursor.class);
+    when(cursor.getLong(0)).thenReturn(3L);
+    when(cursor.getString(1)).thenReturn("Sleep");
+    when(cursor.getLong(2)).thenReturn(1000L);
+
+    assertThat(TaskSummary.fromCursor(cursor, 0, 1, 2), equalTo(TaskSummary.of(3, "Sleep", 1000L)));
+  }
+
+  /**
+   * Summaries are equal if id, name and total are equal.
+   */
+  @Test
+  public void testEqualsAndHashCode() {
+    TaskSummary summary = TaskSummary.of(1, "Sport", 500L);
+
+    assertThat(summary, equalTo(TaskSummary.of(1, "Sport", 500L)));
+    assertThat(summary.hashCode(), is(TaskSummary.of(1, "Sport", 500L).hashCode()));
+    assertThat(summary, not(equalTo(TaskSummary.of(1, "Sport", 501L))));
+    assertThat(summary, not(equalTo(TaskSummary.of(2, "Sport", 500L))));
+  }
+}
@@ -0,0 +1,123 @@
+package de.hdmstuttgart.zeitfresser.model;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * A test class for {@link TimeBuckets} and the bucket boundaries of {@link Granularity}.
+ */
+public class TimeBucketsTest {
+
+  private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+  private static final TimeZone BERLIN = TimeZone.getTimeZone("Europe/Berlin");
+  private static final long HOUR = 60 * 60 * 1000L;
+  private static final long DAY = EpochDays.MILLIS_PER_DAY;
+
+  /**
+   * A record crossing midnight is split between both days, the range cuts off what lies outside
+   * of it.
+   */
+  @Test
+  public void testRecordIsSplitAtBucketBoundaries() {
+    Task task = Task.withName("Sleep");
+    task.addRecord(Record.fromMillis(1, DAY - 2 * HOUR, DAY + 6 * HOUR));
+    task.addRecord(Record.fromMillis(2, 3 * DAY - HOUR, 3 * DAY + HOUR));
+
+    TimeBuckets buckets = TimeBuckets.aggregate(Collections.singletonList(task), 0, 3 * DAY,
+        Granularity.DAY, UTC);
+
+    assertThat(buckets.getBucketCount(), is(3));
+    assertThat(buckets.getMillis(0, 0), is(2 * HOUR));
+    assertThat(buckets.getMillis(0, 1), is(6 * HOUR));
+    assertThat(buckets.getMillis(0, 2), is(HOUR));
+    assertThat(buckets.getTaskTotal(0), is(9 * HOUR));
+  }
+
+  /**
+   * Buckets start at the begin of the bucket <code>from</code> falls into, but the first one is
+   * cut off at <code>from</code>, just like the last one at <code>until</code>.
+   */
+  @Test
+  public void testFirstAndLastBucketAreCutToRange() {
+    Task task = Task.withName("Work");
+    task.addRecord(Record.fromMillis(1, 0, 2 * DAY));
+
+    TimeBuckets buckets = TimeBuckets.aggregate(Collections.singletonList(task), 12 * HOUR,
+        DAY + 6 * HOUR, Granularity.DAY, UTC);
+
+    assertThat(buckets.getBucketCount(), is(2));
+    assertThat(buckets.getBucketStart(0), is(12 * HOUR));
+    assertThat(buckets.getBucketEnd(0), is(DAY));
+    assertThat(buckets.getBucketEnd(1), is(DAY + 6 * HOUR));
+    assertThat(buckets.getMillis(0, 0), is(12 * HOUR));
+    assertThat(buckets.getMillis(0, 1), is(6 * HOUR));
+  }
+
+  /**
+   * Records which haven't been stopped or started don't count.
+   */
+  @Test
+  public void testRunningRecordsAreIgnored() {
+    Task task = Task.withName("Sport");
+    task.addRecord(Record.fromMillis(1, HOUR, Record.UNSET));
+    task.addRecord(Record.fromMillis(2, Record.UNSET, Record.UNSET));
+
+    TimeBuckets buckets = TimeBuckets.aggregate(Collections.singletonList(task), 0, DAY,
+        Granularity.HOUR, UTC);
+
+    assertThat(buckets.getBucketCount(), is(24));
+    assertThat(buckets.getTaskTotal(0), is(0L));
+  }
+
+  /**
+   * Weeks start on Mondays, months on their first day, both at local midnight.
+   */
+  @Test
+  public void testWeekAndMonthBoundaries() {
+    // Wednesday, 2016-02-10 12:00 in Berlin
+    long from = localMillis(2016, Calendar.FEBRUARY, 10, 12);
+    long until = localMillis(2016, Calendar.APRIL, 2, 0);
+    List<Task> tasks = Collections.emptyList();
+
+    TimeBuckets weeks = TimeBuckets.aggregate(tasks, from, until, Granularity.WEEK, BERLIN);
+    assertThat(weeks.getBucketEnd(0), is(localMillis(2016, Calendar.FEBRUARY, 15, 0)));
+    assertThat(weeks.getBucketEnd(1), is(localMillis(2016, Calendar.FEBRUARY, 22, 0)));
+
+    TimeBuckets months = TimeBuckets.aggregate(tasks, from, until, Granularity.MONTH, BERLIN);
+    assertThat(months.getBucketCount(), is(3));
+    assertThat(months.getBucketEnd(0), is(localMillis(2016, Calendar.MARCH, 1, 0)));
+    assertThat(months.getBucketEnd(1), is(localMillis(2016, Calendar.APRIL, 1, 0)));
+  }
+
+  /**
+   * The day of the switch to daylight saving time is only 23 hours long.
+   */
+  @Test
+  public void testDaysFollowDaylightSavingTime() {
+    long from = localMillis(2016, Calendar.MARCH, 27, 0);
+
+    TimeBuckets buckets = TimeBuckets.aggregate(Collections.<Task>emptyList(), from,
+        from + 2 * DAY, Granularity.DAY, BERLIN);
+
+    assertThat(buckets.getBucketEnd(0) - buckets.getBucketStart(0), is(23 * HOUR));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAggregateFailsOnEmptyRange() {
+    TimeBuckets.aggregate(Collections.<Task>emptyList(), DAY, DAY, Granularity.DAY, UTC);
+  }
+
+  private static long localMillis(int year, int month, int day, int hour) {
+    Calendar calendar = Calendar.getInstance(BERLIN);
+    calendar.clear();
+    calendar.set(year, month, day, hour, 0);
+    return calendar.getTimeInMillis();
+  }
+}
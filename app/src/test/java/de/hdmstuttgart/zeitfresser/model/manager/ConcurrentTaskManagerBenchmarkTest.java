@@ -0,0 +1,156 @@
+package de.hdmstuttgart.zeitfresser.model.manager;
+
+import de.hdmstuttgart.zeitfresser.Benchmark;
+import de.hdmstuttgart.zeitfresser.model.Task;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Compares the throughput of {@link ConcurrentTaskManager} with a plain {@link TaskManager}
+ * shared behind a single lock, which is what sharing the existing managers between threads takes.
+ * Every writer thread starts and stops its own task while one reader keeps filtering the task
+ * list.
+ */
+public class ConcurrentTaskManagerBenchmarkTest extends Benchmark {
+
+  private static final int WRITERS = 4;
+  private static final int ITERATIONS = 20000;
+  private static final int WARMUP_ROUNDS = 3;
+  private static final int MEASURED_ROUNDS = 5;
+
+  @Test
+  public void benchmarkStartStopThroughput() throws Exception {
+    long[] nanos = compare(WARMUP_ROUNDS, MEASURED_ROUNDS, new Variant() {
+      @Override
+      public void run() throws InterruptedException {
+        runLocked();
+      }
+    }, new Variant() {
+      @Override
+      public void run() throws InterruptedException {
+        runConcurrent();
+      }
+    });
+
+    long operations = 2L * WRITERS * ITERATIONS;
+    report("start/stop with " + WRITERS + " writers: locked TaskManager "
+        + operations * 1000000000L / nanos[0] + " ops/s, ConcurrentTaskManager "
+        + operations * 1000000000L / nanos[1] + " ops/s");
+  }
+
+  private void runLocked() throws InterruptedException {
+    final List<Task> tasks = createTasks();
+    final TaskManager manager = new TaskManager() {
+      @Override
+      public List<Task> getTaskList() {
+        return tasks;
+      }
+    };
+    final Object lock = new Object();
+
+    run(tasks, new Operations() {
+      @Override
+      public void startAndStop(Task task) {
+        synchronized (lock) {
+          manager.startTask(task);
+        }
+        synchronized (lock) {
+          manager.stopTask(task);
+        }
+      }
+
+      @Override
+      public void read() {
+        synchronized (lock) {
+          manager.asEntryList(manager.getFilteredTasks(null, null));
+        }
+      }
+    });
+  }
+
+  private void runConcurrent() throws InterruptedException {
+    List<Task> tasks = createTasks();
+    final ConcurrentTaskManager manager = ConcurrentTaskManager.createInstance(tasks);
+
+    run(tasks, new Operations() {
+      @Override
+      public void startAndStop(Task task) {
+        manager.startTask(task);
+        manager.stopTask(task);
+      }
+
+      @Override
+      public void read() {
+        manager.asEntryList(manager.getFilteredTasks(null, null));
+      }
+    });
+  }
+
+  private static List<Task> createTasks() {
+    List<Task> tasks = new ArrayList<>();
+    for (int i = 0; i < WRITERS; i++) {
+      tasks.add(Task.withName("Task #" + i));
+    }
+    return tasks;
+  }
+
+  /**
+   * Run the writers and the reader until all writers are done.
+   */
+  private static void run(List<Task> tasks, final Operations operations)
+      throws InterruptedException {
+    final CountDownLatch start = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(WRITERS);
+    List<Thread> threads = new ArrayList<>();
+
+    for (final Task task : tasks) {
+      threads.add(new Thread(new Runnable() {
+        @Override
+        public void run() {
+          awaitQuietly(start);
+          for (int i = 0; i < ITERATIONS; i++) {
+            operations.startAndStop(task);
+          }
+          done.countDown();
+        }
+      }));
+    }
+    threads.add(new Thread(new Runnable() {
+      @Override
+      public void run() {
+        awaitQuietly(start);
+        while (done.getCount() > 0) {
+          operations.read();
+        }
+      }
+    }));
+
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    start.countDown();
+    done.await();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private interface Operations {
+
+    void startAndStop(Task task);
+
+    void read();
+  }
+}
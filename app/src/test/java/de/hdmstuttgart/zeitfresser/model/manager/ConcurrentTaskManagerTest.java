@@ -0,0 +1,151 @@
+package de.hdmstuttgart.zeitfresser.model.manager;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import de.hdmstuttgart.zeitfresser.model.Record;
+import de.hdmstuttgart.zeitfresser.model.Task;
+import de.hdmstuttgart.zeitfresser.model.TaskEvent;
+import de.hdmstuttgart.zeitfresser.model.TaskEventListener;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A test class for {@link ConcurrentTaskManager}.
+ */
+public class ConcurrentTaskManagerTest {
+
+  private Task sport;
+  private Task sleep;
+  private ConcurrentTaskManager taskManager;
+
+  @Before
+  public void setUp() {
+    sport = Task.withName("Sport");
+    sleep = Task.withName("Sleep");
+    taskManager = ConcurrentTaskManager.createInstance(Arrays.asList(sport, sleep));
+  }
+
+  /**
+   * The task list contains snapshots which don't change when the managed tasks do.
+   */
+  @Test
+  public void testTaskListContainsSnapshots() {
+    List<Task> before = taskManager.getTaskList();
+
+    taskManager.startTask(sport);
+
+    assertThat(before.get(0).isActive(), is(false));
+    assertThat(taskManager.getTaskList().get(0).isActive(), is(true));
+    assertThat(taskManager.getTaskList().get(0), is(sport));
+    assertThat(taskManager.getTaskList().get(0), not(sameInstance(sport)));
+  }
+
+  /**
+   * Snapshots passed back to the manager change the managed task.
+   */
+  @Test
+  public void testStartAndStopThroughSnapshot() {
+    Task snapshot = taskManager.getTaskList().get(1);
+    TaskEventListener listener = mock(TaskEventListener.class);
+    taskManager.addTaskEventListener(listener);
+
+    taskManager.startTask(snapshot);
+    Record record = sleep.getActiveRecord();
+    assertThat(sleep.isActive(), is(true));
+    assertThat(taskManager.isTaskActive(snapshot), is(true));
+
+    taskManager.stopTask(snapshot);
+    assertThat(sleep.isActive(), is(false));
+    assertThat(taskManager.getTaskList().get(1).getRecordCount(), is(1));
+    verify(listener).onTaskEvent(TaskEvent.STARTED, sleep, record);
+    verify(listener).onTaskEvent(TaskEvent.STOPPED, sleep, record);
+  }
+
+  /**
+   * Tasks which haven't been added are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testStartTaskFailsOnUnknownTask() {
+    taskManager.startTask(Task.withName("Unknown"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddTaskFailsOnDuplicate() {
+    taskManager.addTask(sport);
+  }
+
+  /**
+   * Threads starting and stopping their own tasks don't interfere with each other, and readers
+   * iterating the task list meanwhile never fail.
+   */
+  @Test
+  public void testConcurrentWritersAndReaders() throws Exception {
+    final int writers = 4;
+    final int iterations = 1000;
+    final List<Task> tasks = new ArrayList<>();
+    for (int i = 0; i < writers; i++) {
+      tasks.add(Task.withName("Task #" + i));
+    }
+    final ConcurrentTaskManager manager = ConcurrentTaskManager.createInstance(tasks);
+    final CountDownLatch done = new CountDownLatch(writers);
+    final AtomicBoolean failed = new AtomicBoolean();
+
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < writers; i++) {
+      final Task task = tasks.get(i);
+      threads.add(new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            for (int j = 0; j < iterations; j++) {
+              manager.startTask(task);
+              manager.stopTask(task);
+            }
+          } catch (RuntimeException ex) {
+            failed.set(true);
+          } finally {
+            done.countDown();
+          }
+        }
+      }));
+    }
+    threads.add(new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          while (done.getCount() > 0) {
+            manager.asEntryList(manager.getTaskList());
+            manager.getFilteredTasks(null, null);
+          }
+        } catch (RuntimeException ex) {
+          failed.set(true);
+        }
+      }
+    }));
+
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertThat(failed.get(), is(false));
+    for (Task task : manager.getTaskList()) {
+      assertThat(task.getRecordCount(), is(iterations));
+      assertThat(task.isActive(), is(false));
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package de.hdmstuttgart.zeitfresser.model.manager;
 
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -13,6 +15,11 @@ import de.hdmstuttgart.zeitfresser.model.Task;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+
+import java.util.Collections;
+import java.util.Date;
 
 public class DbTaskManagerTest {
 
@@ -38,18 +45,138 @@ public class DbTaskManagerTest {
   }
 
   /**
-   * Test if the stopTask method works.
+   * Filtering by date range must be delegated to the database instead of loading all tasks.
+   */
+  @Test
+  public void testGetFilteredTasksIsDelegatedToDbCalls() {
+    DbCalls dbCallsMock = mock(DbCalls.class);
+    Date from = new Date(1000L);
+    Date until = new Date(2000L);
+    this.taskManager.setDbCalls(dbCallsMock);
+    this.taskManager.getFilteredTasks(from, until);
+
+    verify(dbCallsMock, times(1)).getFilteredTasks(contextMock, from, until);
+    verify(dbCallsMock, times(0)).getTasks(contextMock);
+  }
+
+  /**
+   * Asking for the same range again is answered from the cache until a task is stopped.
+   */
+  @Test
+  public void testGetFilteredTasksIsCachedUntilTaskStopped() {
+    DbCalls dbCallsMock = mock(DbCalls.class);
+    Task taskMock = mock(Task.class);
+    when(taskMock.stop()).thenReturn(mock(Record.class));
+    Date from = new Date(1000L);
+    this.taskManager.setDbCalls(dbCallsMock);
+    this.taskManager.getFilteredTasks(from, null);
+    this.taskManager.getFilteredTasks(from, null);
+
+    verify(dbCallsMock, times(1)).getFilteredTasks(contextMock, from, null);
+
+    this.taskManager.stopTask(taskMock);
+    this.taskManager.getFilteredTasks(from, null);
+
+    verify(dbCallsMock, times(2)).getFilteredTasks(contextMock, from, null);
+  }
+
+  /**
+   * Writes committed to the database by others, e.g. the manager of another activity, drop
+   * cached results as well.
+   */
+  @Test
+  public void testGetFilteredTasksIsCachedUntilDatabaseChanges() {
+    DbCalls dbCallsMock = mock(DbCalls.class);
+    when(dbCallsMock.getDataVersion()).thenReturn(7L);
+    this.taskManager.setDbCalls(dbCallsMock);
+    this.taskManager.getFilteredTasks(null, null);
+    this.taskManager.getFilteredTasks(null, null);
+
+    verify(dbCallsMock, times(1)).getFilteredTasks(contextMock, null, null);
+
+    when(dbCallsMock.getDataVersion()).thenReturn(8L);
+    this.taskManager.getFilteredTasks(null, null);
+
+    verify(dbCallsMock, times(2)).getFilteredTasks(contextMock, null, null);
+  }
+
+  /**
+   * Summaries must be computed by the database instead of loading tasks and records.
+   */
+  @Test
+  public void testGetTaskSummariesIsDelegatedToDbCalls() {
+    DbCalls dbCallsMock = mock(DbCalls.class);
+    Date from = new Date(1000L);
+    this.taskManager.setDbCalls(dbCallsMock);
+    this.taskManager.getTaskSummaries(from, null);
+
+    verify(dbCallsMock, times(1)).getTaskSummaries(contextMock, from, null);
+    verify(dbCallsMock, times(0)).getFilteredTasks(contextMock, from, null);
+  }
+
+  /**
+   * Window summaries must be computed by the database from the daily totals.
+   */
+  @Test
+  public void testGetWindowSummariesIsDelegatedToDbCalls() {
+    DbCalls dbCallsMock = mock(DbCalls.class);
+    Date from = new Date(1000L);
+    Date until = new Date(2000L);
+    this.taskManager.setDbCalls(dbCallsMock);
+    this.taskManager.getWindowSummaries(from, until);
+
+    verify(dbCallsMock, times(1)).getWindowSummaries(contextMock, from, until);
+    verify(dbCallsMock, times(0)).getTasks(contextMock);
+  }
+
+  /**
+   * Closing the manager must give back its database reference.
+   */
+  @Test
+  public void testCloseReleasesDbCalls() {
+    DbCalls dbCallsMock = mock(DbCalls.class);
+    this.taskManager.setDbCalls(dbCallsMock);
+    this.taskManager.close();
+
+    verify(dbCallsMock, times(1)).close();
+  }
+
+  /**
+   * Test if the stopTask method works. The record is written in the background, flushing makes
+   * sure it has been handed to the database.
    */
   @Test
   public void testStopTask() {
     Task taskMock = mock(Task.class);
     DbCalls dbCallsMock = mock(DbCalls.class);
     Record activeRecordMock = mock(Record.class);
-    when(taskMock.getActiveRecord()).thenReturn(activeRecordMock);
+    when(taskMock.stop()).thenReturn(activeRecordMock);
     this.taskManager.setDbCalls(dbCallsMock);
     this.taskManager.stopTask(taskMock);
+    this.taskManager.flush();
 
     verify(taskMock, times(1)).stop();
-    verify(dbCallsMock, times(1)).persistRecord(contextMock, activeRecordMock, taskMock);
+    verify(dbCallsMock, times(1)).persistRecords(contextMock,
+        Collections.singletonList(activeRecordMock), Collections.singletonList(taskMock),
+        Collections.<Task, Long>emptyMap());
+  }
+
+  /**
+   * Reading tasks must not miss records which are still queued for writing.
+   */
+  @Test
+  public void testGetTaskListFlushesPendingRecords() {
+    Task taskMock = mock(Task.class);
+    DbCalls dbCallsMock = mock(DbCalls.class);
+    when(taskMock.stop()).thenReturn(mock(Record.class));
+    this.taskManager.setDbCalls(dbCallsMock);
+    this.taskManager.stopTask(taskMock);
+    this.taskManager.getTaskList();
+
+    InOrder inOrder = inOrder(dbCallsMock);
+    inOrder.verify(dbCallsMock).persistRecords(eq(contextMock),
+        ArgumentMatchers.<Record>anyList(), ArgumentMatchers.<Task>anyList(),
+        ArgumentMatchers.<Task, Long>anyMap());
+    inOrder.verify(dbCallsMock).getTasks(contextMock);
   }
 }
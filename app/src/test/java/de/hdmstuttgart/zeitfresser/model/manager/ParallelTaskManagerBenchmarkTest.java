@@ -0,0 +1,100 @@
+package de.hdmstuttgart.zeitfresser.model.manager;
+
+import de.hdmstuttgart.zeitfresser.Benchmark;
+import de.hdmstuttgart.zeitfresser.model.Record;
+import de.hdmstuttgart.zeitfresser.model.Task;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Finds the number of tasks from which on parallel evaluation (see
+ * {@link TaskManager#setParallelPool(ForkJoinPool)}) beats sequential evaluation. For growing
+ * task counts, filters the tasks and converts them to chart entries both ways and prints the
+ * times, followed by the smallest count for which parallel evaluation was faster. The result
+ * depends on the number of cores, compare it with {@link TaskManager#DEFAULT_PARALLEL_THRESHOLD}
+ * on the devices of interest.
+ */
+public class ParallelTaskManagerBenchmarkTest extends Benchmark {
+
+  private static final int[] TASK_COUNTS = {256, 1024, 4096, 16384, 65536};
+  private static final int RECORDS_PER_TASK = 20;
+  private static final long MIN_MEASURED_NANOS = 200000000L;
+
+  private ForkJoinPool pool;
+
+  @Before
+  public void setUp() {
+    pool = new ForkJoinPool();
+  }
+
+  @After
+  public void tearDown() {
+    if (pool != null) {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void benchmarkCrossover() throws Exception {
+    int crossover = -1;
+    for (int count : TASK_COUNTS) {
+      TaskManager manager = createManager(count);
+      Date from = new Date(RECORDS_PER_TASK * 1000L / 2);
+
+      manager.setParallelPool(null);
+      long sequentialNanos = measure(manager, from);
+      manager.setParallelPool(pool);
+      manager.setParallelThreshold(1);
+      long parallelNanos = measure(manager, from);
+
+      report(count + " tasks on " + pool.getParallelism() + " workers: sequential "
+          + sequentialNanos + " ns, parallel " + parallelNanos + " ns");
+      if (crossover < 0 && parallelNanos < sequentialNanos) {
+        crossover = count;
+      }
+    }
+
+    report(crossover > 0 ? "parallel evaluation pays off from " + crossover + " tasks"
+        : "parallel evaluation didn't pay off for up to "
+        + TASK_COUNTS[TASK_COUNTS.length - 1] + " tasks");
+  }
+
+  /**
+   * Returns the average time of filtering and converting the tasks. Bypasses the range cache,
+   * which would answer every round but the first.
+   */
+  private static long measure(final TaskManager manager, final Date from) throws Exception {
+    return measureFor(MIN_MEASURED_NANOS, new Variant() {
+      @Override
+      public void run() {
+        manager.asEntryList(manager.loadFilteredTasks(from, null));
+      }
+    });
+  }
+
+  private static TaskManager createManager(int count) {
+    final List<Task> tasks = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Task task = Task.withName("Task #" + i);
+      for (int j = 0; j < RECORDS_PER_TASK; j++) {
+        long start = j * 1000L + i % 1000;
+        task.addRecord(Record.fromMillis(j, start, start + 500L));
+      }
+      tasks.add(task);
+    }
+
+    return new TaskManager() {
+      @Override
+      public List<Task> getTaskList() {
+        return tasks;
+      }
+    };
+  }
+}
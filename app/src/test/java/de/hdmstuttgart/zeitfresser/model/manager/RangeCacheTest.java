@@ -0,0 +1,70 @@
+package de.hdmstuttgart.zeitfresser.model.manager;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import java.util.Date;
+
+/**
+ * A test class for {@link RangeCache}.
+ */
+public class RangeCacheTest {
+
+  private static final Date FROM = new Date(1000L);
+  private static final Date UNTIL = new Date(2000L);
+
+  /**
+   * A result is found again for the same range and version only, missing bounds are part of the
+   * range.
+   */
+  @Test
+  public void testGetReturnsResultForSameRange() {
+    RangeCache<String> cache = new RangeCache<>(4);
+    cache.put(FROM, UNTIL, 0, "result");
+
+    assertThat(cache.get(new Date(1000L), new Date(2000L), 0), is("result"));
+    assertThat(cache.get(FROM, null, 0), nullValue());
+    assertThat(cache.get(null, UNTIL, 0), nullValue());
+    assertThat(cache.getHitCount(), is(1L));
+    assertThat(cache.getMissCount(), is(2L));
+  }
+
+  /**
+   * A newer version drops all results, a result computed for an older version isn't stored.
+   */
+  @Test
+  public void testNewerVersionInvalidatesResults() {
+    RangeCache<String> cache = new RangeCache<>(4);
+    cache.put(FROM, UNTIL, 0, "old");
+
+    assertThat(cache.get(FROM, UNTIL, 1), nullValue());
+    cache.put(FROM, UNTIL, 0, "stale");
+    assertThat(cache.get(FROM, UNTIL, 1), nullValue());
+    cache.put(FROM, UNTIL, 1, "new");
+    assertThat(cache.get(FROM, UNTIL, 1), is("new"));
+  }
+
+  /**
+   * Once the cache is full, the range used least recently is evicted.
+   */
+  @Test
+  public void testLeastRecentlyUsedRangeIsEvicted() {
+    RangeCache<String> cache = new RangeCache<>(2);
+    cache.put(null, new Date(1L), 0, "first");
+    cache.put(null, new Date(2L), 0, "second");
+    cache.get(null, new Date(1L), 0);
+    cache.put(null, new Date(3L), 0, "third");
+
+    assertThat(cache.get(null, new Date(1L), 0), is("first"));
+    assertThat(cache.get(null, new Date(2L), 0), nullValue());
+    assertThat(cache.get(null, new Date(3L), 0), is("third"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructorFailsOnNonPositiveCapacity() {
+    new RangeCache<String>(0);
+  }
+}
@@ -0,0 +1,100 @@
+package de.hdmstuttgart.zeitfresser.model.manager;
+
+import de.hdmstuttgart.zeitfresser.model.Record;
+import de.hdmstuttgart.zeitfresser.model.Task;
+
+import de.hdmstuttgart.zeitfresser.Benchmark;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Compares {@link TaskFilter} with the chain of filters {@link TaskManager#getFilteredTasks(Date,
+ * Date)} used before, which built a new list per criterion. Filters 1000 tasks with 10000
+ * records each, every criterion drops some of them.
+ */
+public class TaskFilterBenchmarkTest extends Benchmark {
+
+  private static final int TASKS = 1000;
+  private static final int RECORDS_PER_TASK = 10000;
+  private static final int WARMUP_ROUNDS = 2000;
+  private static final int MEASURED_ROUNDS = 10000;
+
+  private List<Task> tasks;
+  private Date from;
+  private Date until;
+
+  /**
+   * Create the tasks. Every third task has no recorded time, and the bounds cut off the oldest
+   * and the newest tasks.
+   */
+  @Before
+  public void setUp() {
+    tasks = new ArrayList<>(TASKS);
+    for (int i = 0; i < TASKS; i++) {
+      Task task = Task.withName("Task #" + i);
+      long start = i * 1000L;
+      for (int j = 0; j < RECORDS_PER_TASK; j++) {
+        long end = i % 3 == 0 ? start : start + 500L;
+        task.addRecord(Record.fromMillis(j, start, end));
+        start += TASKS * 1000L;
+      }
+      tasks.add(task);
+    }
+    from = new Date(TASKS * 1000L * (RECORDS_PER_TASK - 1) + TASKS * 100L);
+    until = new Date(TASKS * 900L);
+  }
+
+  @Test
+  public void benchmarkGetFilteredTasks() throws Exception {
+    int expected = TaskFilter.between(from, until).apply(tasks).size();
+    if (filterChained(from, until, tasks).size() != expected) {
+      throw new AssertionError("Both variants must find the same tasks!");
+    }
+
+    long[] nanos = compare(WARMUP_ROUNDS, MEASURED_ROUNDS, new Variant() {
+      @Override
+      public void run() {
+        filterChained(from, until, tasks);
+      }
+    }, new Variant() {
+      @Override
+      public void run() {
+        TaskFilter.between(from, until).apply(tasks);
+      }
+    });
+
+    report("getFilteredTasks over " + TASKS + " tasks x " + RECORDS_PER_TASK + " records ("
+        + expected + " match): chained " + nanos[0] + " ns, fused " + nanos[1] + " ns");
+  }
+
+  /**
+   * The filter chain as it was: one pass and one new list per criterion.
+   */
+  private static List<Task> filterChained(Date from, Date until, List<Task> tasks) {
+    List<Task> later = new LinkedList<>();
+    for (Task task : tasks) {
+      if (task.hasRecordsAfter(from)) {
+        later.add(task);
+      }
+    }
+    List<Task> earlier = new LinkedList<>();
+    for (Task task : later) {
+      if (task.hasRecordsBefore(until)) {
+        earlier.add(task);
+      }
+    }
+    List<Task> result = new LinkedList<>();
+    for (Task task : earlier) {
+      if (task.getOverallDurationMillis() > 0) {
+        result.add(task);
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,116 @@
+package de.hdmstuttgart.zeitfresser.model.manager;
+
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import de.hdmstuttgart.zeitfresser.model.Task;
+
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * A test class for {@link TaskFilter}. The tasks from {@link #getTaskList()} cover every
+ * combination of records before and after the bounds and of zero and non-zero durations.
+ */
+public class TaskFilterTest extends TaskManagerBaseTest {
+
+  /*
+      Equivalence classes for apply(tasks):
+
+      1) null (-> IllegalArgumentException)
+      2) An empty list (-> empty list)
+      3) A list of tasks (-> only the tasks matching all criteria, in their original order)
+   */
+
+  @Test
+  public void testApplyThrowsExceptionOnNullArg() {
+    try {
+      TaskFilter.between(testFromDate, testUntilDate).apply(null);
+      fail("An exception should have been thrown.");
+    } catch (IllegalArgumentException ex) {
+      assertException(ex, IllegalArgumentException.class, "Argument 'tasks' must not be null!");
+    }
+  }
+
+  @Test
+  public void testApplyReturnsEmptyListOnEmptyArgList() {
+    List<Task> result = TaskFilter.between(testFromDate, testUntilDate)
+        .apply(new LinkedList<Task>());
+
+    assertThat(result, is(empty()));
+  }
+
+  /**
+   * Without bounds only the tasks with a duration of zero are dropped.
+   */
+  @Test
+  public void testApplyWithoutBoundsFiltersZeroDurationTasks() {
+    List<Task> tasks = getTaskList();
+
+    List<Task> result = TaskFilter.between(null, null).apply(tasks);
+
+    assertThat(result, equalTo(Arrays.asList(tasks.get(1), tasks.get(3), tasks.get(5))));
+  }
+
+  /**
+   * A lower bound additionally requires a record starting after it.
+   */
+  @Test
+  public void testApplyWithFromOnly() {
+    List<Task> tasks = getTaskList();
+
+    List<Task> result = TaskFilter.between(testFromDate, null).apply(tasks);
+
+    assertThat(result, equalTo(Arrays.asList(tasks.get(3), tasks.get(5))));
+  }
+
+  /**
+   * An upper bound additionally requires a record starting before it.
+   */
+  @Test
+  public void testApplyWithUntilOnly() {
+    List<Task> tasks = getTaskList();
+
+    List<Task> result = TaskFilter.between(null, testUntilDate).apply(tasks);
+
+    assertThat(result, equalTo(Arrays.asList(tasks.get(1), tasks.get(5))));
+  }
+
+  /**
+   * With both bounds a task has to match all three criteria.
+   */
+  @Test
+  public void testApplyWithBothBounds() {
+    List<Task> tasks = getTaskList();
+
+    List<Task> result = TaskFilter.between(testFromDate, testUntilDate).apply(tasks);
+
+    assertThat(result, equalTo(Arrays.asList(tasks.get(5))));
+  }
+
+  /**
+   * The duration is checked first, the records of a task which has no recorded time aren't
+   * searched at all.
+   */
+  @Test
+  public void testMatchesChecksDurationFirst() {
+    Task task = mock(Task.class);
+    when(task.getOverallDurationMillis()).thenReturn(0L);
+
+    assertThat(TaskFilter.between(testFromDate, testUntilDate).matches(task), is(false));
+    verify(task, never()).hasRecordsAfter(ArgumentMatchers.<Date>any());
+    verify(task, never()).hasRecordsBefore(ArgumentMatchers.<Date>any());
+  }
+}
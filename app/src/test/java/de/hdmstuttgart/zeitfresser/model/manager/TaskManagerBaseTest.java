@@ -51,7 +51,7 @@ public class TaskManagerBaseTest extends TaskManager {
     Task task = mock(Task.class);
     when(task.hasRecordsBefore(eq(testUntilDate))).thenReturn(true);
     when(task.hasRecordsAfter(eq(testFromDate))).thenReturn(false);
-    when(task.getOverallDuration()).thenReturn(0.0f);
+    when(task.getOverallDurationMillis()).thenReturn(0L);
     return task;
   }
 
@@ -59,7 +59,7 @@ public class TaskManagerBaseTest extends TaskManager {
     Task task = mock(Task.class);
     when(task.hasRecordsBefore(eq(testUntilDate))).thenReturn(true);
     when(task.hasRecordsAfter(eq(testFromDate))).thenReturn(false);
-    when(task.getOverallDuration()).thenReturn(1.0f);
+    when(task.getOverallDurationMillis()).thenReturn(1L);
     return task;
   }
 
@@ -67,7 +67,7 @@ public class TaskManagerBaseTest extends TaskManager {
     Task task = mock(Task.class);
     when(task.hasRecordsBefore(eq(testUntilDate))).thenReturn(false);
     when(task.hasRecordsAfter(eq(testFromDate))).thenReturn(true);
-    when(task.getOverallDuration()).thenReturn(0.0f);
+    when(task.getOverallDurationMillis()).thenReturn(0L);
     return task;
   }
 
@@ -75,7 +75,7 @@ public class TaskManagerBaseTest extends TaskManager {
     Task task = mock(Task.class);
     when(task.hasRecordsBefore(eq(testUntilDate))).thenReturn(false);
     when(task.hasRecordsAfter(eq(testFromDate))).thenReturn(true);
-    when(task.getOverallDuration()).thenReturn(1.0f);
+    when(task.getOverallDurationMillis()).thenReturn(1L);
     return task;
   }
 
@@ -83,7 +83,7 @@ public class TaskManagerBaseTest extends TaskManager {
     Task task = mock(Task.class);
     when(task.hasRecordsBefore(eq(testUntilDate))).thenReturn(true);
     when(task.hasRecordsAfter(eq(testFromDate))).thenReturn(true);
-    when(task.getOverallDuration()).thenReturn(0.0f);
+    when(task.getOverallDurationMillis()).thenReturn(0L);
     return task;
   }
 
@@ -91,7 +91,7 @@ public class TaskManagerBaseTest extends TaskManager {
     Task task = mock(Task.class);
     when(task.hasRecordsBefore(eq(testUntilDate))).thenReturn(true);
     when(task.hasRecordsAfter(eq(testFromDate))).thenReturn(true);
-    when(task.getOverallDuration()).thenReturn(1.0f);
+    when(task.getOverallDurationMillis()).thenReturn(1L);
     return task;
   }
 
@@ -99,7 +99,7 @@ public class TaskManagerBaseTest extends TaskManager {
     Task task = mock(Task.class);
     when(task.hasRecordsBefore(eq(testUntilDate))).thenReturn(false);
     when(task.hasRecordsAfter(eq(testFromDate))).thenReturn(false);
-    when(task.getOverallDuration()).thenReturn(0.0f);
+    when(task.getOverallDurationMillis()).thenReturn(0L);
     return task;
   }
 
@@ -2,23 +2,38 @@ package de.hdmstuttgart.zeitfresser.model.manager;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.number.IsCloseTo.closeTo;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import com.github.mikephil.charting.data.Entry;
+import de.hdmstuttgart.zeitfresser.model.Granularity;
+import de.hdmstuttgart.zeitfresser.model.IntervalIndex;
+import de.hdmstuttgart.zeitfresser.model.Record;
 import de.hdmstuttgart.zeitfresser.model.Task;
+import de.hdmstuttgart.zeitfresser.model.TaskEvent;
+import de.hdmstuttgart.zeitfresser.model.TaskEventListener;
+import de.hdmstuttgart.zeitfresser.model.TaskSummary;
+import de.hdmstuttgart.zeitfresser.model.TimeBuckets;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.mockito.ArgumentMatchers;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * A test class for verifying the behavior of the public methods of {@link Task}.
@@ -87,6 +102,113 @@ public class TaskManagerPublicApiTest extends TaskManagerBaseTest {
   }
 
 
+  /**
+   * Registered listeners are notified about started and stopped tasks together with the record
+   * concerned, removed listeners aren't notified anymore.
+   */
+  @Test
+  public void testTaskEventListenerIsNotifiedOnStartAndStop() {
+    Task task = Task.withName("Sport");
+    TaskEventListener listener = mock(TaskEventListener.class);
+    this.addTaskEventListener(listener);
+
+    this.startTask(task);
+    Record record = task.getActiveRecord();
+    this.stopTask(task);
+
+    verify(listener).onTaskEvent(TaskEvent.STARTED, task, record);
+    verify(listener).onTaskEvent(TaskEvent.STOPPED, task, record);
+
+    this.removeTaskEventListener(listener);
+    this.startTask(task);
+
+    verifyNoMoreInteractions(listener);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddTaskEventListenerFailsOnNullArg() {
+    this.addTaskEventListener(null);
+  }
+
+
+  /*
+      Equivalence classes for switchTask(from, to):
+
+      1) An active and an inactive task (-> stops one and starts the other at the same instant)
+      2) An inactive task to switch from (-> IllegalStateException)
+      3) null for one of them (-> IllegalArgumentException)
+   */
+
+  /**
+   * Switching ends the record of the first task exactly where the record of the second one
+   * starts, and notifies listeners about both.
+   */
+  @Test
+  public void testSwitchTask() {
+    Task sport = Task.withName("Sport");
+    Task sleep = Task.withName("Sleep");
+    TaskEventListener listener = mock(TaskEventListener.class);
+    this.addTaskEventListener(listener);
+    this.startTask(sport);
+    Record stopped = sport.getActiveRecord();
+
+    this.switchTask(sport, sleep);
+
+    assertThat(sport.isActive(), is(false));
+    assertThat(sleep.isActive(), is(true));
+    assertThat(stopped.getEndMillis(), is(sleep.getActiveRecord().getStartMillis()));
+    verify(listener).onTaskEvent(TaskEvent.STOPPED, sport, stopped);
+    verify(listener).onTaskEvent(TaskEvent.STARTED, sleep, sleep.getActiveRecord());
+  }
+
+  /**
+   * Switching from a task which isn't running must not start the other one.
+   */
+  @Test
+  public void testSwitchTaskFailsOnInactiveTask() {
+    Task sport = Task.withName("Sport");
+    Task sleep = Task.withName("Sleep");
+
+    try {
+      this.switchTask(sport, sleep);
+    } catch (IllegalStateException ex) {
+      assertThat(sleep.isActive(), is(false));
+      return;
+    }
+    throw new AssertionError("Switching from an inactive task must fail!");
+  }
+
+  /**
+   * If the other task can't be started, the stop still has to be reported, otherwise its record
+   * would never be persisted.
+   */
+  @Test
+  public void testSwitchTaskReportsStopIfStartFails() {
+    Task sport = Task.withName("Sport");
+    Task sleep = mock(Task.class);
+    doThrow(new IllegalStateException("Task has already been started!")).when(sleep)
+        .start(ArgumentMatchers.anyLong());
+    TaskEventListener listener = mock(TaskEventListener.class);
+    this.addTaskEventListener(listener);
+    this.startTask(sport);
+    Record stopped = sport.getActiveRecord();
+
+    try {
+      this.switchTask(sport, sleep);
+    } catch (IllegalStateException ex) {
+      assertThat(sport.isActive(), is(false));
+      verify(listener).onTaskEvent(TaskEvent.STOPPED, sport, stopped);
+      return;
+    }
+    throw new AssertionError("Switching to a task which can't be started must fail!");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSwitchTaskFailsOnNullArg() {
+    this.switchTask(Task.withName("Sport"), null);
+  }
+
+
   /*
       Equivalence classes for isTaskActive(task):
 
@@ -124,15 +246,15 @@ public class TaskManagerPublicApiTest extends TaskManagerBaseTest {
    */
 
   /**
-   * The getOverallDurationForTask() method should invoke the getOverallDuration() method of our.
-   * mocked Task once
+   * The getOverallDurationForTask() method should invoke the getOverallDurationMillis() method of
+   * our mocked Task once.
    */
   @Test
   public void testGetOverallDurationForTask() {
     Task mockedTask = mock(Task.class);
     this.getOverallDurationForTask(mockedTask);
 
-    verify(mockedTask, times(1)).getOverallDuration();
+    verify(mockedTask, times(1)).getOverallDurationMillis();
   }
 
 
@@ -221,16 +343,16 @@ public class TaskManagerPublicApiTest extends TaskManagerBaseTest {
     Task mockedTask1 = mock(Task.class);
     Task mockedTask2 = mock(Task.class);
 
-    float task1Duration = 0.0f;
+    long task1Duration = 0L;
     long task1Id = 1;
 
-    float task2Duration = 1.0f;
+    long task2Duration = 1L;
     long task2Id = 2;
 
-    when(mockedTask1.getOverallDuration()).thenReturn(task1Duration);
+    when(mockedTask1.getOverallDurationMillis()).thenReturn(task1Duration);
     when(mockedTask1.getId()).thenReturn(task1Id);
 
-    when(mockedTask2.getOverallDuration()).thenReturn(task2Duration);
+    when(mockedTask2.getOverallDurationMillis()).thenReturn(task2Duration);
     when(mockedTask2.getId()).thenReturn(task2Id);
 
     List<Task> tasks = new LinkedList<>();
@@ -332,9 +454,265 @@ public class TaskManagerPublicApiTest extends TaskManagerBaseTest {
     assertThat(tasks.size(), is(1));
   }
 
-  private void assertEntry(Entry entry, float duration, long taskId) {
+  /**
+   * Evaluated in parallel, all four combinations must filter just like sequentially.
+   */
+  @Test
+  public void testGetFilteredTasksInParallel() {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    this.setParallelPool(pool);
+    this.setParallelThreshold(1);
+
+    try {
+      assertThat(this.getFilteredTasks(null, null).size(), is(3));
+      assertThat(this.getFilteredTasks(null, testUntilDate).size(), is(2));
+      assertThat(this.getFilteredTasks(testFromDate, null).size(), is(2));
+      assertThat(this.getFilteredTasks(testFromDate, testUntilDate).size(), is(1));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Evaluated in parallel, the entries must still be in the order of the tasks.
+   */
+  @Test
+  public void testAsEntryListInParallel() {
+    List<Task> tasks = new LinkedList<>();
+    for (int i = 0; i < 100; i++) {
+      Task task = mock(Task.class);
+      when(task.getOverallDurationMillis()).thenReturn(i * 10L);
+      when(task.getId()).thenReturn((long) i);
+      tasks.add(task);
+    }
+    ForkJoinPool pool = new ForkJoinPool(4);
+    this.setParallelPool(pool);
+    this.setParallelThreshold(1);
+
+    try {
+      List<Entry> result = this.asEntryList(tasks);
+
+      assertThat(result.size(), is(100));
+      for (int i = 0; i < 100; i++) {
+        assertEntry(result.get(i), i * 10L, i);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetParallelThresholdFailsOnNonPositiveArg() {
+    this.setParallelThreshold(0);
+  }
+
+  /**
+   * Summaries must match the tasks returned by <code>getFilteredTasks()</code> one by one.
+   */
+  @Test
+  public void testGetTaskSummariesMatchesFilteredTasks() {
+    List<Task> tasks = this.getFilteredTasks(testFromDate, null);
+    List<TaskSummary> summaries = this.getTaskSummaries(testFromDate, null);
+
+    assertThat(summaries.size(), is(tasks.size()));
+    for (int i = 0; i < tasks.size(); i++) {
+      assertThat(summaries.get(i), equalTo(TaskSummary.fromTask(tasks.get(i))));
+    }
+  }
+
+  /**
+   * Window summaries only contain the time inside the window and leave out tasks without any.
+   */
+  @Test
+  public void testGetWindowSummariesClipsToWindow() {
+    final Task task = Task.withName("Sport");
+    task.addRecord(Record.fromMillis(1, 1000L, 5000L));
+    TaskManager manager = new TaskManager() {
+      @Override
+      public List<Task> getTaskList() {
+        return Collections.singletonList(task);
+      }
+    };
+
+    List<TaskSummary> summaries = manager.getWindowSummaries(new Date(2000L), new Date(3000L));
+
+    assertThat(summaries, equalTo(Collections.singletonList(
+        TaskSummary.of(task.getId(), "Sport", 1000L))));
+    assertThat(manager.getWindowSummaries(new Date(5000L), null).isEmpty(), is(true));
+  }
+
+  /**
+   * Repeated range queries are answered from the cache until a task is started or stopped, or
+   * the cache is invalidated explicitly.
+   */
+  @Test
+  public void testRangeQueriesAreCachedUntilDataChanges() {
+    final Task task = Task.withName("Sport");
+    task.addRecord(Record.fromMillis(1, 1000L, 5000L));
+    TaskManager manager = new TaskManager() {
+      @Override
+      public List<Task> getTaskList() {
+        return Collections.singletonList(task);
+      }
+    };
+
+    List<Task> first = manager.getFilteredTasks(null, null);
+    assertThat(manager.getFilteredTasks(null, null) == first, is(true));
+    assertThat(manager.getCacheHitCount(), is(1L));
+    assertThat(manager.getCacheMissCount(), is(1L));
+
+    manager.startTask(task);
+    manager.stopTask(task);
+    assertThat(manager.getFilteredTasks(null, null) == first, is(false));
+
+    List<TaskSummary> summaries = manager.getWindowSummaries(new Date(2000L), null);
+    task.addRecord(Record.fromMillis(2, 6000L, 7000L));
+    manager.invalidateCache();
+    assertThat(manager.getWindowSummaries(new Date(2000L), null), not(equalTo(summaries)));
+  }
+
+  /**
+   * Aggregating covers every task of the manager, one row each.
+   */
+  @Test
+  public void testAggregateCoversAllTasks() {
+    final Task sport = Task.withName("Sport");
+    sport.addRecord(Record.fromMillis(1, 1000L, 5000L));
+    final Task sleep = Task.withName("Sleep");
+    TaskManager manager = new TaskManager() {
+      @Override
+      public List<Task> getTaskList() {
+        return Arrays.asList(sport, sleep);
+      }
+    };
+
+    TimeBuckets buckets = manager.aggregate(new Date(0L), new Date(3000L), Granularity.HOUR);
+
+    assertThat(buckets.getTasks(), equalTo(Arrays.asList(sport, sleep)));
+    assertThat(buckets.getTaskTotal(0), is(2000L));
+    assertThat(buckets.getTaskTotal(1), is(0L));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAggregateThrowsExceptionOnNullArg() {
+    this.aggregate(null, new Date(), Granularity.DAY);
+  }
+
+  /**
+   * Only the largest tasks are returned on their own, largest first, the others are summed up
+   * in a last summary.
+   */
+  @Test
+  public void testTopTasksSumsUpTheOthers() {
+    final List<Task> tasks = new ArrayList<>();
+    long[] durations = {3000L, 1000L, 5000L, 2000L, 4000L};
+    for (int i = 0; i < durations.length; i++) {
+      Task task = Task.withName("Task " + i);
+      task.addRecord(Record.fromMillis(i, 10000L, 10000L + durations[i]));
+      tasks.add(task);
+    }
+    TaskManager manager = new TaskManager() {
+      @Override
+      public List<Task> getTaskList() {
+        return tasks;
+      }
+    };
+
+    List<TaskSummary> top = manager.topTasks(null, null, 2, "Rest");
+
+    assertThat(top.size(), is(3));
+    assertThat(top.get(0).getName(), is("Task 2"));
+    assertThat(top.get(1).getName(), is("Task 4"));
+    assertThat(top.get(2), equalTo(TaskSummary.of(TaskSummary.OTHER_ID, "Rest", 6000L)));
+    assertThat(top.get(2).isOther(), is(true));
+  }
+
+  /**
+   * Without more tasks than requested there is no summary of the others.
+   */
+  @Test
+  public void testTopTasksWithoutOthers() {
+    final Task sport = Task.withName("Sport");
+    sport.addRecord(Record.fromMillis(1, 1000L, 2000L));
+    final Task sleep = Task.withName("Sleep");
+    sleep.addRecord(Record.fromMillis(2, 3000L, 9000L));
+    TaskManager manager = new TaskManager() {
+      @Override
+      public List<Task> getTaskList() {
+        return Arrays.asList(sport, sleep);
+      }
+    };
+
+    List<TaskSummary> top = manager.topTasks(null, null, 2);
+
+    assertThat(top.size(), is(2));
+    assertThat(top.get(0).getName(), is("Sleep"));
+    assertThat(top.get(1).getName(), is("Sport"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTopTasksFailsOnNonPositiveArg() {
+    this.topTasks(null, null, 0);
+  }
+
+  /**
+   * The interval index built by the manager covers the records of all its tasks.
+   */
+  @Test
+  public void testBuildIntervalIndexCoversAllTasks() {
+    final Task sport = Task.withName("Sport");
+    sport.addRecord(Record.fromMillis(1, 1000L, 5000L));
+    final Task sleep = Task.withName("Sleep");
+    sleep.addRecord(Record.fromMillis(2, 4000L, 8000L));
+    TaskManager manager = new TaskManager() {
+      @Override
+      public List<Task> getTaskList() {
+        return Arrays.asList(sport, sleep);
+      }
+    };
+
+    IntervalIndex index = manager.buildIntervalIndex();
+
+    assertThat(index.getTasksAt(4500L), equalTo(Arrays.asList(sport, sleep)));
+    assertThat(index.getTasksAt(6000L), equalTo(Collections.singletonList(sleep)));
+  }
+
+  /**
+   * We expect <code>asSummaryEntryList()</code> and <code>asSummaryNamesList()</code> to produce
+   * entries and labels in the same order. The chart finds the label of an entry by its x-index,
+   * so that is the position in the list, also for unordered ids and the summary of other tasks.
+   */
+  @Test
+  public void testAsSummaryEntryAndNamesList() {
+    List<TaskSummary> summaries = Arrays.asList(
+        TaskSummary.of(2, "Sleep", 3000L),
+        TaskSummary.of(1, "Sport", 2000L),
+        TaskSummary.of(TaskSummary.OTHER_ID, "Other", 1000L));
+
+    List<Entry> entries = this.asSummaryEntryList(summaries);
+    List<String> names = this.asSummaryNamesList(summaries);
+
+    assertThat(entries.size(), equalTo(3));
+    assertEntry(entries.get(0), 3000.0f, 0);
+    assertEntry(entries.get(1), 2000.0f, 1);
+    assertEntry(entries.get(2), 1000.0f, 2);
+    assertThat(names, equalTo(Arrays.asList("Sleep", "Sport", "Other")));
+  }
+
+  /**
+   * <code>asSummaryEntryList()</code> shall reject <code>null</code> like its task counterpart.
+   */
+  @Test
+  public void testAsSummaryEntryListThrowsExceptionOnNullArg() {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Argument 'summaries' must not be null!");
+
+    this.asSummaryEntryList(null);
+  }
+
+  private void assertEntry(Entry entry, float duration, long xIndex) {
     assertThat((double) entry.getVal(), closeTo(duration, 0.00001));
-    assertThat(entry.getXIndex(), equalTo((int) taskId));
+    assertThat(entry.getXIndex(), equalTo((int) xIndex));
   }
 
 
@@ -10,8 +10,6 @@ import org.junit.runners.Suite;
  */
 
 @RunWith(Suite.class)
-@Suite.SuiteClasses({TaskManagerFilterZeroDurationTasksTest.class,
-    TaskManagerGetTasksWithRecordsEarlierThanTest.class,
-    TaskManagerGetTasksWithRecordsLaterThanTest.class, TaskManagerPublicApiTest.class})
+@Suite.SuiteClasses({TaskFilterTest.class, TaskManagerPublicApiTest.class})
 public class TaskManagerTestSuite {
 }